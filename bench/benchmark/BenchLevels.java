@@ -0,0 +1,49 @@
+package benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.Maze;
+import model.ZombieStore;
+
+/*
+ * Level files and spawn helpers shared by the benchmarks
+ * Run from the project folder, or pass -jvmArgsAppend -Dbench.levels=other/folder/
+ * to benchmark bigger levels
+ */
+final class BenchLevels {
+
+    static final String FOLDER = System.getProperty("bench.levels", "src/levels/");
+
+    // Fixed so every run benchmarks the same zombie layout
+    static final long SEED = 220L;
+
+    private BenchLevels() {}
+
+    static Maze load(int level) {
+        return new Maze(new File(FOLDER + "level" + level + ".txt"));
+    }
+
+    //row/col pairs of every walkable tile
+    static List<int[]> walkableTiles(Maze maze) {
+        List<int[]> tiles = new ArrayList<>();
+        for (int r = 0; r < maze.getRows(); r++) {
+            for (int c = 0; c < maze.getCols(); c++) {
+                if (maze.isWalkable(r, c)) tiles.add(new int[] {r, c});
+            }
+        }
+        return tiles;
+    }
+
+    //adds zombies on random walkable tiles until the store holds count of them
+    static void fill(ZombieStore store, Maze maze, int count) {
+        List<int[]> tiles = walkableTiles(maze);
+        Random random = new Random(SEED);
+        while (store.size() < count) {
+            int[] tile = tiles.get(random.nextInt(tiles.size()));
+            store.add(tile[0], tile[1]);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import model.CollisionSystem;
+import model.DangerDetector;
+import model.GameSimulation;
+import model.Player;
+import model.ZombieStore;
+
+/*
+ * CollisionSystem and DangerDetector on level 1 with extra zombies added to the level's own
+ * The player is hit at most once (nothing ticks its invincibility down here), after that
+ * every call does the same queries
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    @Param({"8", "100", "1000", "10000"})
+    public int count;
+
+    private GameSimulation sim;
+    private final CollisionSystem collisions = new CollisionSystem();
+    private final DangerDetector danger = new DangerDetector();
+
+    @Setup
+    public void setup() {
+        sim = new GameSimulation(BenchLevels.FOLDER);
+        BenchLevels.fill(sim.getZombies(), sim.getMaze(), count);
+    }
+
+    @Benchmark
+    public GameSimulation collisionUpdate() {
+        collisions.update(sim);
+        return sim;
+    }
+
+    @Benchmark
+    public boolean dangerGrid() {
+        ZombieStore zombies = sim.getZombies();
+        danger.update(sim.getPlayer(), zombies, zombies.getGrid());
+        return danger.isInDanger();
+    }
+
+    //the overload that looks at every zombie, for comparison
+    @Benchmark
+    public boolean dangerLinear() {
+        Player player = sim.getPlayer();
+        danger.update(player, sim.getZombies());
+        return danger.isInDanger();
+    }
+}
@@ -0,0 +1,46 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import model.Maze;
+
+/*
+ * Maze.isWalkable over random tiles, some of them just outside the maze
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MazeBenchmark {
+
+    private static final int PROBES = 1024;
+
+    private Maze maze;
+    private final int[] rows = new int[PROBES];
+    private final int[] cols = new int[PROBES];
+
+    @Setup
+    public void setup() {
+        maze = BenchLevels.load(1);
+        Random random = new Random(BenchLevels.SEED);
+        for (int i = 0; i < PROBES; i++) {
+            rows[i] = random.nextInt(maze.getRows() + 2) - 1;
+            cols[i] = random.nextInt(maze.getCols() + 2) - 1;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public int isWalkable() {
+        int walkable = 0;
+        for (int i = 0; i < PROBES; i++) {
+            if (maze.isWalkable(rows[i], cols[i])) walkable++;
+        }
+        return walkable;
+    }
+}
@@ -0,0 +1,92 @@
+package benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import model.FlowField;
+import model.Maze;
+import model.MazeGenerator;
+import model.PathfindingService;
+import model.TileType;
+
+/*
+ * PathfindingService routes between random tiles of a generated maze, against a full
+ * FlowField search to the same goal. The cache is off so every query searches
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathfindingBenchmark {
+
+    private static final int QUERIES = 256;
+
+    // Goals are at most this many tiles away on each axis
+    private static final int RANGE = 64;
+
+    @Param({"257", "1025"})
+    public int size;
+
+    private PathfindingService service;
+    private FlowField field;
+    private final int[][] queries = new int[QUERIES][];
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        Maze maze = MazeGenerator.generate(size, size, BenchLevels.SEED);
+        Random random = new Random(BenchLevels.SEED);
+
+        // Knock out some walls so there is more than one way around
+        for (int i = 0; i < size * size / 8; i++) {
+            int r = 1 + random.nextInt(size - 2);
+            int c = 1 + random.nextInt(size - 2);
+            maze.setTile(r, c, TileType.FLOOR);
+        }
+
+        List<int[]> tiles = BenchLevels.walkableTiles(maze);
+        for (int i = 0; i < QUERIES; i++) {
+            int[] from = tiles.get(random.nextInt(tiles.size()));
+            int toRow;
+            int toCol;
+            do {
+                toRow = from[0] + random.nextInt(2 * RANGE + 1) - RANGE;
+                toCol = from[1] + random.nextInt(2 * RANGE + 1) - RANGE;
+            } while (!maze.isWalkable(toRow, toCol));
+            queries[i] = new int[] { from[0], from[1], toRow, toCol };
+        }
+
+        service = new PathfindingService(maze, PathfindingService.DEFAULT_CLUSTER_SIZE, 0);
+        field = new FlowField(maze);
+    }
+
+    private int[] nextQuery() {
+        int[] q = queries[next];
+        next = (next + 1) % QUERIES;
+        return q;
+    }
+
+    @Benchmark
+    public int[] route() {
+        int[] q = nextQuery();
+        return service.findRoute(q[0], q[1], q[2], q[3]);
+    }
+
+    @Benchmark
+    public int[] path() {
+        int[] q = nextQuery();
+        return service.findPath(q[0], q[1], q[2], q[3]);
+    }
+
+    @Benchmark
+    public int flowField() {
+        int[] q = nextQuery();
+        field.update(q[2], q[3]);
+        return field.getDistance(q[0], q[1]);
+    }
+}
@@ -0,0 +1,37 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import model.Maze;
+import model.Player;
+import model.Spawner;
+
+/*
+ * Player.move walking right, down, left and up in turn, so it hits walls as in the game
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+
+    private Player player;
+    private long ticks = 0;
+
+    @Setup
+    public void setup() {
+        Maze maze = BenchLevels.load(1);
+        player = new Spawner(maze).spawnPlayer();
+    }
+
+    @Benchmark
+    public double move() {
+        int phase = (int) (ticks++ / 90 % 4);
+        player.move(phase == 3, phase == 1, phase == 2, phase == 0);
+        return player.getX() + player.getY();
+    }
+}
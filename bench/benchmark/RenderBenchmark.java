@@ -0,0 +1,70 @@
+package benchmark;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import model.Camera;
+import model.GameSimulation;
+import model.Renderer;
+import model.WorldSnapshot;
+
+/*
+ * Renderer.renderWorld into an offscreen image the size of the game window,
+ * by day and in night mode (world culled to the light, then the darkness on top)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    private static final int WIDTH = 650;
+    private static final int HEIGHT = 650;
+
+    @Param({"false", "true"})
+    public boolean night;
+
+    private BufferedImage image;
+    private Graphics2D g2;
+
+    private final Renderer renderer = new Renderer();
+    private final Camera camera = new Camera();
+    private final WorldSnapshot world = new WorldSnapshot();
+
+    @Setup
+    public void setup() {
+        GameSimulation sim = new GameSimulation(BenchLevels.FOLDER);
+        world.capture(sim, null, System.nanoTime(), WIDTH, HEIGHT);
+
+        renderer.setMaze(world.getMaze());
+        renderer.setNightMode(night);
+        camera.follow(world.getPlayerX(1f), world.getPlayerY(1f), world.getMaze(), WIDTH, HEIGHT);
+
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2 = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage renderWorld() {
+        g2.setColor(Color.BLACK);
+        g2.fillRect(0, 0, WIDTH, HEIGHT);
+
+        renderer.renderWorld(g2, camera, world, 1f, night);
+        if (night) {
+            renderer.renderNightMode(g2, camera, world.getPlayerX(1f), world.getPlayerY(1f),
+                    WIDTH, HEIGHT, true);
+        }
+        return image;
+    }
+}
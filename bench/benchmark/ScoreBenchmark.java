@@ -0,0 +1,50 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import model.ScoreManager;
+
+/*
+ * ScoreManager.loadScores (read, split and sort) on generated leaderboard files
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoreBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int lines;
+
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = File.createTempFile("scores", ".txt");
+        Random random = new Random(BenchLevels.SEED);
+        try (PrintWriter out = new PrintWriter(file)) {
+            for (int i = 0; i < lines; i++) {
+                out.println("player" + random.nextInt(10000) + "," + random.nextInt(5000));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public List<String[]> loadScores() {
+        return ScoreManager.loadScores(file);
+    }
+}
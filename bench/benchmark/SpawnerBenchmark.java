@@ -0,0 +1,46 @@
+package benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import model.Collectible;
+import model.Maze;
+import model.Player;
+import model.Spawner;
+import model.Zombie;
+
+/*
+ * Spawning a level's zombies and collectibles, as done on every level load
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpawnerBenchmark {
+
+    private Spawner spawner;
+    private Player player;
+    private List<Zombie> zombies;
+
+    @Setup
+    public void setup() {
+        Maze maze = BenchLevels.load(1);
+        spawner = new Spawner(maze);
+        player = spawner.spawnPlayer();
+        zombies = spawner.spawnZombies(player);
+    }
+
+    @Benchmark
+    public List<Zombie> spawnZombies() {
+        return spawner.spawnZombies(player);
+    }
+
+    @Benchmark
+    public List<Collectible> spawnCollectibles() {
+        return spawner.spawnCollectibles(zombies);
+    }
+}
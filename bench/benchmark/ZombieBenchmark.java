@@ -0,0 +1,84 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import model.CorridorGraph;
+import model.Maze;
+import model.Zombie;
+import model.ZombieMovement;
+import model.ZombieStore;
+
+/*
+ * One update of every zombie, with the Zombie objects and with ZombieStore,
+ * wandering (on one thread and on the common pool) and walking the corridor graph
+ * The score is the time for the whole horde, not per zombie
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZombieBenchmark {
+
+    @Param({"8", "100", "1000", "10000"})
+    public int count;
+
+    private ZombieStore store;
+    private ZombieStore parallelStore;
+    private ZombieStore corridorStore;
+    private final List<Zombie> zombies = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        Maze maze = BenchLevels.load(1);
+        store = new ZombieStore(maze, BenchLevels.SEED);
+        BenchLevels.fill(store, maze, count);
+        store.setParallelism(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+
+        parallelStore = new ZombieStore(maze, BenchLevels.SEED);
+        BenchLevels.fill(parallelStore, maze, count);
+        parallelStore.setParallelism(ForkJoinPool.commonPool(), 1);
+
+        corridorStore = new ZombieStore(maze, BenchLevels.SEED);
+        BenchLevels.fill(corridorStore, maze, count);
+        corridorStore.setMovement(ZombieMovement.CORRIDOR, null, new CorridorGraph(maze));
+
+        for (int i = 0; i < count; i++) {
+            int row = (int) (store.getY(i) / Maze.TILE_SIZE);
+            int col = (int) (store.getX(i) / Maze.TILE_SIZE);
+            zombies.add(new Zombie(row, col, maze));
+        }
+    }
+
+    @Benchmark
+    public ZombieStore updateStore() {
+        store.updateAll();
+        return store;
+    }
+
+    @Benchmark
+    public ZombieStore updateParallel() {
+        parallelStore.updateAll();
+        return parallelStore;
+    }
+
+    @Benchmark
+    public ZombieStore updateCorridor() {
+        corridorStore.updateAll();
+        return corridorStore;
+    }
+
+    @Benchmark
+    public List<Zombie> updateObjects() {
+        for (Zombie z : zombies) {
+            z.update();
+        }
+        return zombies;
+    }
+}
@@ -0,0 +1,183 @@
+package app;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import model.GameMode;
+import model.GameSimulation;
+import model.InputState;
+import model.LevelCache;
+import model.ZombieMovement;
+
+/**
+ * Class: BatchSimulator
+ * @author Section 03 Team 02
+ * <br>Purpose: Command line entry point that plays many complete games in parallel
+ * without a window and prints throughput, survival rate and score distribution.
+ * <br>Usage: java app.BatchSimulator [--games N] [--threads N] [--max-ticks N]
+ * [--policy random|sweep] [--movement wander|chase|corridor] [--lod on|off] [--seed N]
+ * [--levels folder/]
+ */
+public class BatchSimulator {
+
+    // Defaults for the command line options
+    public static final int DEFAULT_GAMES = 1000;
+    public static final int DEFAULT_MAX_TICKS = 5 * 60 * GameSimulation.TICKS_PER_SECOND;
+    public static final long DEFAULT_SEED = 220L;
+
+    // Input policies
+    public static final String POLICY_RANDOM = "random";
+    public static final String POLICY_SWEEP = "sweep";
+
+    private int games = DEFAULT_GAMES;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxTicks = DEFAULT_MAX_TICKS;
+    private String policy = POLICY_RANDOM;
+    private ZombieMovement movement = ZombieMovement.WANDER;
+    private boolean lod = true;
+    private long seed = DEFAULT_SEED;
+    private String levelFolder = GameSimulation.DEFAULT_LEVEL_FOLDER;
+
+    // Every game reads its levels from here, so each file is parsed once per run
+    private final LevelCache levelCache = new LevelCache();
+
+    /*
+     * What one finished game reports back, each game writes only its own slot
+     */
+    private static class GameResult {
+        GameMode mode;
+        int score;
+        long ticks;
+    }
+
+    public static void main(String[] args) {
+        BatchSimulator batch = new BatchSimulator();
+        batch.parseArgs(args);
+        batch.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--games" -> games = Math.max(0, Integer.parseInt(value));
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--max-ticks" -> maxTicks = Integer.parseInt(value);
+                case "--policy" -> policy = value;
+                case "--movement" -> movement = ZombieMovement.valueOf(value.toUpperCase());
+                case "--lod" -> lod = !"off".equals(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--levels" -> levelFolder = value.endsWith("/") ? value : value + "/";
+                default -> System.err.println("Unknown option ignored: " + args[i]);
+            }
+        }
+    }
+
+    public void run() {
+        GameResult[] results = new GameResult[games];
+
+        System.out.println("Running " + games + " games on " + threads + " threads ("
+                + policy + " input, " + movement.name().toLowerCase() + " zombies, max "
+                + maxTicks + " ticks)...");
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, games).parallel()
+                    .forEach(i -> results[i] = playGame(i))).join();
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        printReport(results, elapsed);
+    }
+
+    /**
+     * Plays one game from level 1 until it is won, lost, or hits the tick limit.
+     *
+     * @param index the game number, used to derive its game and input seeds
+     */
+    private GameResult playGame(int index) {
+        GameSimulation sim = new GameSimulation(levelFolder, levelCache, seed + index);
+        sim.setZombieMovement(movement);
+        sim.getZombieScheduler().setEnabled(lod);
+        InputState input = new InputState();
+        Random random = new Random(seed + index);
+
+        long ticks = 0;
+        while (!sim.isFinished() && ticks < maxTicks) {
+            if (POLICY_SWEEP.equals(policy)) {
+                sweepInput(input, ticks);
+            } else {
+                randomInput(input, random, ticks);
+            }
+            sim.step(input);
+            ticks++;
+        }
+
+        GameResult result = new GameResult();
+        result.mode = sim.getMode();
+        result.score = sim.getPlayer().getScore();
+        result.ticks = ticks;
+        return result;
+    }
+
+    //every 20 ticks, one chance in three to pick a new direction out of 8 (or stand still)
+    private void randomInput(InputState input, Random random, long ticks) {
+        if (ticks % 20 != 0 || (ticks > 0 && random.nextInt(3) != 0)) return;
+
+        int vertical = random.nextInt(3) - 1;
+        int horizontal = random.nextInt(3) - 1;
+        input.set(vertical < 0, vertical > 0, horizontal < 0, horizontal > 0);
+    }
+
+    //walks right, down, left, up for 1.5 seconds each, over and over
+    private void sweepInput(InputState input, long ticks) {
+        int phase = (int) (ticks / 90 % 4);
+        input.set(phase == 3, phase == 1, phase == 2, phase == 0);
+    }
+
+    private void printReport(GameResult[] results, long elapsedNanos) {
+        long totalTicks = 0;
+        int wins = 0;
+        int deaths = 0;
+        long scoreSum = 0;
+        int[] scores = new int[results.length];
+
+        for (int i = 0; i < results.length; i++) {
+            GameResult r = results[i];
+            totalTicks += r.ticks;
+            if (r.mode == GameMode.WIN) wins++;
+            if (r.mode == GameMode.GAME_OVER) deaths++;
+            scoreSum += r.score;
+            scores[i] = r.score;
+        }
+        Arrays.sort(scores);
+
+        double seconds = elapsedNanos / 1e9;
+        int n = results.length;
+
+        System.out.printf("Elapsed:       %.2f s%n", seconds);
+        if (n == 0) {
+            System.out.println("No games played.");
+            return;
+        }
+        System.out.printf("Games/sec:     %.1f%n", n / seconds);
+        System.out.printf("Ticks/sec:     %.0f%n", totalTicks / seconds);
+        System.out.printf("Survival rate: %.1f%% (%d won, %d died, %d timed out)%n",
+                100.0 * (n - deaths) / n, wins, deaths, n - wins - deaths);
+
+        System.out.printf("Score mean:    %.1f%n", scoreSum / (double) n);
+        System.out.println("Score min/p10/p50/p90/max: " + scores[0] + " / "
+                + percentile(scores, 10) + " / " + percentile(scores, 50) + " / "
+                + percentile(scores, 90) + " / " + scores[n - 1]);
+    }
+
+    private int percentile(int[] sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
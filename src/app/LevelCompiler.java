@@ -0,0 +1,61 @@
+package app;
+
+import java.io.File;
+import java.io.IOException;
+
+import model.BinaryLevel;
+import model.Maze;
+
+/**
+ * Class: LevelCompiler
+ * @author Section 03 Team 02
+ * <br>Purpose: Offline tool that turns text levels (levelN.txt) into the compiled
+ * .lvl format, written next to each text file. Maze loads the .lvl instead of
+ * parsing the text whenever it is present and up to date.
+ * <br>Usage: java app.LevelCompiler [file.txt | folder]...   (default: src/levels and bin/levels)
+ */
+public class LevelCompiler {
+
+    public static void main(String[] args) {
+        String[] targets = args.length > 0 ? args : new String[] { "src/levels", "bin/levels" };
+
+        int compiled = 0;
+        for (String target : targets) {
+            File file = new File(target);
+
+            if (file.isDirectory()) {
+                File[] levels = file.listFiles((dir, name) -> name.matches("level\\d+\\.txt"));
+                if (levels == null) continue;
+                for (File level : levels) {
+                    if (compile(level)) compiled++;
+                }
+            } else if (file.isFile()) {
+                if (compile(file)) compiled++;
+            }
+        }
+
+        System.out.println(compiled + " level(s) compiled.");
+    }
+
+    private static boolean compile(File textFile) {
+        String name = textFile.getName();
+        String base = name.endsWith(".txt") ? name.substring(0, name.length() - 4) : name;
+        File out = new File(textFile.getParentFile(), base + BinaryLevel.EXTENSION);
+
+        // Always parse the text, even if an older .lvl is sitting next to it
+        out.delete();
+        Maze maze = new Maze(textFile);
+
+        try {
+            BinaryLevel.write(maze, out);
+        } catch (IOException e) {
+            System.err.println("Could not write " + out + ": " + e.getMessage());
+            return false;
+        }
+
+        System.out.printf("%s -> %s (%dx%d, %.0f rows/sec parsed, %d bytes)%n",
+                textFile, out.getName(), maze.getRows(), maze.getCols(),
+                maze.getLoadRowsPerSecond(), out.length());
+        return true;
+    }
+}
@@ -0,0 +1,508 @@
+package app;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import model.Camera;
+import model.GameRandom;
+import model.GameSimulation;
+import model.InputState;
+import model.LevelCache;
+import model.Maze;
+import model.MazeGenerator;
+import model.Renderer;
+import model.ScoreManager;
+import model.WorldSnapshot;
+import model.ZombieMovement;
+
+/**
+ * Class: ScenarioRunner
+ * @author Section 03 Team 02
+ * <br>Purpose: Command line macro benchmark. Plays fixed end-to-end scenarios (simulation
+ * plus an offscreen Renderer) for a set number of ticks, measures ticks/sec, tick time
+ * percentiles, bytes allocated per tick and peak heap, writes them as CSV and compares
+ * them to a stored baseline. Exits with 1 when a scenario got worse than the tolerance allows.
+ * <br>Usage: java -Djava.awt.headless=true app.ScenarioRunner [--scenario name,name]
+ * [--ticks N] [--seed N] [--levels folder/] [--out file.csv] [--baseline file.csv]
+ * [--tolerance 0.2] [--update-baseline]
+ */
+public class ScenarioRunner {
+
+    // Defaults for the command line options
+    public static final String DEFAULT_OUT = "scenario-results.csv";
+    public static final String DEFAULT_BASELINE = "scenario-baseline.csv";
+    public static final double DEFAULT_TOLERANCE = 0.20;
+    public static final long DEFAULT_SEED = 220L;
+
+    // Growth below these is noise, even when the baseline is tiny
+    private static final double ALLOC_SLACK_BYTES = 256;
+    private static final double HEAP_SLACK_MB = 16;
+
+    private static final String CSV_HEADER =
+            "scenario,ticks,ticks_per_sec,p50_us,p99_us,max_us,alloc_bytes_per_tick,peak_heap_mb";
+
+    private String[] only = null;
+    private int ticksOverride = -1;
+    private long seed = DEFAULT_SEED;
+    private String levelFolder = GameSimulation.DEFAULT_LEVEL_FOLDER;
+    private String outFile = DEFAULT_OUT;
+    private String baselineFile = DEFAULT_BASELINE;
+    private double tolerance = DEFAULT_TOLERANCE;
+    private boolean updateBaseline = false;
+
+    private final LevelCache levelCache = new LevelCache();
+
+    /*
+     * One end-to-end workload, ticked a fixed number of times after a warmup
+     */
+    private abstract static class Scenario {
+        final String name;
+        final int ticks;
+        final int warmup;
+
+        Scenario(String name, int ticks, int warmup) {
+            this.name = name;
+            this.ticks = ticks;
+            this.warmup = warmup;
+        }
+
+        abstract void setup() throws IOException;
+        abstract void tick(long index);
+        void teardown() {}
+    }
+
+    /*
+     * What one scenario measured, also the rows of the results and baseline files
+     */
+    private static class Result {
+        String name;
+        long ticks;
+        double ticksPerSecond;
+        double p50Micros;
+        double p99Micros;
+        double maxMicros;
+        double allocPerTick;
+        double peakHeapMb;
+    }
+
+    public static void main(String[] args) {
+        ScenarioRunner runner = new ScenarioRunner();
+        runner.parseArgs(args);
+        System.exit(runner.run());
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--update-baseline")) {
+                updateBaseline = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                System.err.println("Missing value ignored: " + args[i]);
+                break;
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--scenario" -> only = value.split(",");
+                case "--ticks" -> ticksOverride = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--levels" -> levelFolder = value.endsWith("/") ? value : value + "/";
+                case "--out" -> outFile = value;
+                case "--baseline" -> baselineFile = value;
+                case "--tolerance" -> tolerance = Double.parseDouble(value);
+                default -> System.err.println("Unknown option ignored: " + args[i - 1]);
+            }
+        }
+    }
+
+    private List<Scenario> scenarios() {
+        List<Scenario> all = new ArrayList<>();
+        all.add(new GameScenario("level1", 3600, null, 8, ZombieMovement.WANDER, 650, 650, false));
+        all.add(new GameScenario("maze512-10k", 600, 512, 10_000, ZombieMovement.WANDER, 650, 650, false));
+        all.add(new GameScenario("maze512-10k-chase", 600, 512, 10_000, ZombieMovement.CHASE,
+                650, 650, false));
+        all.add(new GameScenario("maze512-10k-corridor", 600, 512, 10_000, ZombieMovement.CORRIDOR,
+                650, 650, false));
+        all.add(new GameScenario("night-1080p", 3600, null, 8, ZombieMovement.WANDER, 1920, 1080, true));
+        all.add(new ScoresScenario("scores-1m", 1_000_000));
+
+        if (only == null) return all;
+        List<Scenario> chosen = new ArrayList<>();
+        for (Scenario s : all) {
+            if (Arrays.asList(only).contains(s.name)) chosen.add(s);
+        }
+
+        // A typo must not pass as a run with nothing to compare
+        List<String> known = new ArrayList<>();
+        for (Scenario s : all) known.add(s.name);
+        boolean unknown = false;
+        for (String name : only) {
+            if (!known.contains(name)) {
+                System.err.println("Unknown scenario: " + name);
+                unknown = true;
+            }
+        }
+        if (unknown) {
+            System.err.println("Known scenarios: " + String.join(", ", known));
+            return null;
+        }
+        return chosen;
+    }
+
+    /**
+     * Runs the scenarios, writes the results and checks them against the baseline.
+     *
+     * @return the process exit code, 1 when something regressed or a scenario is unknown
+     */
+    public int run() {
+        List<Scenario> scenarios = scenarios();
+        if (scenarios == null) return 1;
+
+        List<Result> results = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            System.out.println("Running " + scenario.name + "...");
+            try {
+                results.add(measure(scenario));
+            } catch (IOException e) {
+                System.err.println("Scenario " + scenario.name + " failed: " + e.getMessage());
+                return 1;
+            }
+        }
+
+        printResults(results);
+        if (!write(results, outFile)) return 1;
+        System.out.println("Results written to " + outFile);
+
+        if (updateBaseline) {
+            if (!write(results, baselineFile)) return 1;
+            System.out.println("Baseline updated: " + baselineFile);
+            return 0;
+        }
+
+        Map<String, Result> baseline = readBaseline(baselineFile);
+        if (baseline == null) {
+            System.out.println("No baseline at " + baselineFile + ", run with --update-baseline to store one.");
+            return 0;
+        }
+        return compare(results, baseline) ? 0 : 1;
+    }
+
+    private Result measure(Scenario scenario) throws IOException {
+        scenario.setup();
+        try {
+            for (int i = 0; i < scenario.warmup; i++) scenario.tick(i);
+
+            System.gc();
+            List<MemoryPoolMXBean> heap = heapPools();
+            for (MemoryPoolMXBean pool : heap) pool.resetPeakUsage();
+
+            long[] times = new long[scenario.ticks];
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+
+            for (int i = 0; i < scenario.ticks; i++) {
+                long t0 = System.nanoTime();
+                scenario.tick(scenario.warmup + i);
+                times[i] = System.nanoTime() - t0;
+            }
+
+            long elapsed = System.nanoTime() - start;
+            long allocatedAfter = allocatedBytes();
+
+            long peak = 0;
+            for (MemoryPoolMXBean pool : heap) peak += pool.getPeakUsage().getUsed();
+
+            Arrays.sort(times);
+            Result r = new Result();
+            r.name = scenario.name;
+            r.ticks = scenario.ticks;
+            r.ticksPerSecond = scenario.ticks * 1e9 / elapsed;
+            r.p50Micros = percentile(times, 50) / 1e3;
+            r.p99Micros = percentile(times, 99) / 1e3;
+            r.maxMicros = times[times.length - 1] / 1e3;
+            r.allocPerTick = allocatedBefore < 0 ? -1
+                    : (allocatedAfter - allocatedBefore) / (double) scenario.ticks;
+            r.peakHeapMb = peak / (1024.0 * 1024.0);
+            return r;
+        } finally {
+            scenario.teardown();
+        }
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pools.add(pool);
+        }
+        return pools;
+    }
+
+    //bytes allocated so far by this thread, -1 when the JVM cannot tell
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) threads;
+        if (!sun.isThreadAllocatedMemorySupported() || !sun.isThreadAllocatedMemoryEnabled()) return -1;
+        return sun.getCurrentThreadAllocatedBytes();
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    // -------------------------------
+    // Scenarios
+    // -------------------------------
+
+    /*
+     * A game on a level file or a generated maze, drawn offscreen after every tick the way
+     * GameComponent draws it: snapshot, camera, world, night mode and HUD
+     */
+    private class GameScenario extends Scenario {
+        private final Integer generatedSize;
+        private final int zombies;
+        private final ZombieMovement movement;
+        private final int width;
+        private final int height;
+        private final boolean night;
+
+        private GameSimulation sim;
+        private InputState input;
+        private Random random;
+        private Renderer renderer;
+        private Camera camera;
+        private WorldSnapshot[] snapshots;
+        private BufferedImage image;
+        private Graphics2D g2;
+
+        //generatedSize null plays level 1 from the level folder
+        GameScenario(String name, int ticks, Integer generatedSize, int zombies,
+                     ZombieMovement movement, int width, int height, boolean night) {
+            super(name, ticksOverride > 0 ? ticksOverride : ticks, 300);
+            this.generatedSize = generatedSize;
+            this.zombies = zombies;
+            this.movement = movement;
+            this.width = width;
+            this.height = height;
+            this.night = night;
+        }
+
+        @Override
+        void setup() {
+            sim = new GameSimulation(levelFolder, levelCache, seed);
+            if (generatedSize != null) {
+                Maze maze = MazeGenerator.generate(generatedSize, generatedSize, seed);
+                sim.playMaze(maze, zombies);
+            }
+            sim.setZombieMovement(movement);
+
+            input = new InputState();
+            random = new Random(seed);
+
+            renderer = new Renderer();
+            renderer.setNightMode(night);
+            renderer.setMaze(sim.getMaze());
+            camera = new Camera(sim.getRandom().stream(GameRandom.Stream.CAMERA, 0));
+            snapshots = new WorldSnapshot[] { new WorldSnapshot(), new WorldSnapshot() };
+
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            g2 = image.createGraphics();
+        }
+
+        @Override
+        void tick(long index) {
+            // Same random input policy as BatchSimulator, games that end start over
+            if (index % 20 == 0 && (index == 0 || random.nextInt(3) == 0)) {
+                int vertical = random.nextInt(3) - 1;
+                int horizontal = random.nextInt(3) - 1;
+                input.set(vertical < 0, vertical > 0, horizontal < 0, horizontal > 0);
+            }
+            if (sim.isFinished()) sim.restart();
+            sim.step(input);
+
+            WorldSnapshot previous = snapshots[(int) ((index + 1) & 1)];
+            WorldSnapshot world = snapshots[(int) (index & 1)];
+            world.capture(sim, previous, System.nanoTime(), width, height);
+            if (world.getMaze() != previous.getMaze()) renderer.setMaze(world.getMaze());
+
+            double px = world.getPlayerX(1f);
+            double py = world.getPlayerY(1f);
+            camera.update();
+            camera.follow(px, py, world.getMaze(), width, height);
+
+            g2.setColor(Color.BLACK);
+            g2.fillRect(0, 0, width, height);
+            renderer.renderWorld(g2, camera, world, 1f, night);
+            if (night) renderer.renderNightMode(g2, camera, px, py, width, height, true);
+            renderer.renderFlash(g2, world.isFlashing(), width, height);
+            renderer.renderHUD(g2, world.getLives(), world.getScore(), world.isInDanger(),
+                    width, height);
+        }
+
+        @Override
+        void teardown() {
+            g2.dispose();
+        }
+    }
+
+    /*
+     * Loading (reading, splitting and sorting) a big leaderboard file, one load per tick
+     */
+    private class ScoresScenario extends Scenario {
+        private final int lines;
+        private File file;
+
+        ScoresScenario(String name, int lines) {
+            super(name, 10, 2);
+            this.lines = lines;
+        }
+
+        @Override
+        void setup() throws IOException {
+            file = File.createTempFile("scores", ".txt");
+            Random random = new Random(seed);
+            try (PrintWriter out = new PrintWriter(file)) {
+                for (int i = 0; i < lines; i++) {
+                    out.println("player" + random.nextInt(10_000) + "," + random.nextInt(5_000));
+                }
+            }
+        }
+
+        @Override
+        void tick(long index) {
+            ScoreManager.loadScores(file);
+        }
+
+        @Override
+        void teardown() {
+            file.delete();
+        }
+    }
+
+    // -------------------------------
+    // Results and baseline
+    // -------------------------------
+
+    private void printResults(List<Result> results) {
+        System.out.printf(Locale.ROOT, "%-18s %10s %12s %10s %10s %12s %10s%n",
+                "scenario", "ticks/sec", "p50 us", "p99 us", "max us", "alloc/tick", "peak MB");
+        for (Result r : results) {
+            System.out.printf(Locale.ROOT, "%-18s %10.1f %12.1f %10.1f %10.1f %12.0f %10.1f%n",
+                    r.name, r.ticksPerSecond, r.p50Micros, r.p99Micros, r.maxMicros,
+                    r.allocPerTick, r.peakHeapMb);
+        }
+    }
+
+    private boolean write(List<Result> results, String file) {
+        try (Writer out = new FileWriter(file)) {
+            out.write(CSV_HEADER + "\n");
+            for (Result r : results) {
+                out.write(String.format(Locale.ROOT, "%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f\n",
+                        r.name, r.ticks, r.ticksPerSecond, r.p50Micros, r.p99Micros,
+                        r.maxMicros, r.allocPerTick, r.peakHeapMb));
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not write " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    //baseline rows by scenario name, null when there is no readable baseline
+    private Map<String, Result> readBaseline(String file) {
+        File f = new File(file);
+        if (!f.isFile()) return null;
+
+        Map<String, Result> rows = new HashMap<>();
+        try {
+            List<String> lines = Files.readAllLines(f.toPath());
+            for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+                String[] parts = line.split(",");
+                if (parts.length != 8) continue;
+
+                Result r = new Result();
+                r.name = parts[0];
+                r.ticks = Long.parseLong(parts[1]);
+                r.ticksPerSecond = Double.parseDouble(parts[2]);
+                r.p50Micros = Double.parseDouble(parts[3]);
+                r.p99Micros = Double.parseDouble(parts[4]);
+                r.maxMicros = Double.parseDouble(parts[5]);
+                r.allocPerTick = Double.parseDouble(parts[6]);
+                r.peakHeapMb = Double.parseDouble(parts[7]);
+                rows.put(r.name, r);
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Baseline unreadable, ignored: " + e.getMessage());
+            return null;
+        }
+        return rows;
+    }
+
+    /**
+     * Checks throughput, p99 tick time, allocation and peak heap against the baseline.
+     * p50 and max are reported only, max is too noisy to gate on.
+     *
+     * @return true when nothing regressed past the tolerance
+     */
+    private boolean compare(List<Result> results, Map<String, Result> baseline) {
+        boolean ok = true;
+        for (Result r : results) {
+            Result base = baseline.get(r.name);
+            if (base == null) {
+                System.out.println(r.name + ": not in baseline, skipped");
+                continue;
+            }
+            if (base.ticks != r.ticks) {
+                // Shorter runs spend more of their time warming up, they are not comparable
+                System.out.println(r.name + ": baseline ran " + base.ticks + " ticks, skipped");
+                continue;
+            }
+
+            List<String> problems = new ArrayList<>();
+            if (r.ticksPerSecond < base.ticksPerSecond * (1 - tolerance)) {
+                problems.add(String.format(Locale.ROOT, "ticks/sec %.0f < %.0f",
+                        r.ticksPerSecond, base.ticksPerSecond));
+            }
+            if (r.p99Micros > base.p99Micros * (1 + tolerance)) {
+                problems.add(String.format(Locale.ROOT, "p99 %.1f us > %.1f us",
+                        r.p99Micros, base.p99Micros));
+            }
+            if (base.allocPerTick >= 0
+                    && r.allocPerTick > base.allocPerTick * (1 + tolerance) + ALLOC_SLACK_BYTES) {
+                problems.add(String.format(Locale.ROOT, "alloc/tick %.0f B > %.0f B",
+                        r.allocPerTick, base.allocPerTick));
+            }
+            if (r.peakHeapMb > base.peakHeapMb * (1 + tolerance) + HEAP_SLACK_MB) {
+                problems.add(String.format(Locale.ROOT, "peak heap %.1f MB > %.1f MB",
+                        r.peakHeapMb, base.peakHeapMb));
+            }
+
+            if (problems.isEmpty()) {
+                System.out.println(r.name + ": ok");
+            } else {
+                System.out.println(r.name + ": REGRESSED (" + String.join(", ", problems) + ")");
+                ok = false;
+            }
+        }
+        return ok;
+    }
+}
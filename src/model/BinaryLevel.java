@@ -0,0 +1,164 @@
+package model;
+
+import java.awt.Point;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/*
+ * Compiled level format (.lvl), written by app.LevelCompiler and read by Maze
+ * The wall bits are stored exactly as Maze keeps them, so loading is one bulk copy
+ *
+ * Layout (big-endian):
+ *   int   magic "ZMAZ"
+ *   short version
+ *   short flags (1 = checksum present)
+ *   long  CRC32 of everything after the header
+ *   int   rows, cols
+ *   int   player row, col (-1, -1 when there is no P)
+ *   int   zombie spawn count, then row, col for each
+ *   int   exit count, then row, col for each
+ *   int   word count, then the long words of the padded walkable bitset
+ */
+public class BinaryLevel {
+
+    public static final String EXTENSION = ".lvl";
+
+    private static final int MAGIC = 0x5A4D415A;  // "ZMAZ"
+    private static final short VERSION = 1;
+    private static final short FLAG_CHECKSUM = 1;
+    private static final int HEADER_BYTES = 16;
+
+    // Prevent instantiation
+    private BinaryLevel() {}
+
+    /**
+     * Finds the compiled form of a text level, e.g. level1.lvl for level1.txt.
+     *
+     * @return the .lvl file, or null when there is none or it is older than the text
+     */
+    public static File compiledFileFor(File textFile) {
+        String name = textFile.getName();
+        if (name.endsWith(EXTENSION)) return textFile;
+
+        int dot = name.lastIndexOf('.');
+        String base = dot < 0 ? name : name.substring(0, dot);
+        File compiled = new File(textFile.getParentFile(), base + EXTENSION);
+
+        if (!compiled.isFile()) return null;
+        if (textFile.exists() && compiled.lastModified() < textFile.lastModified()) return null;
+        return compiled;
+    }
+
+    //writes a loaded maze in the compiled format
+    public static void write(Maze maze, File out) throws IOException {
+        Point player = maze.getPlayerSpawn();
+        List<Point> zombies = maze.getZombieSpawns();
+        int[][] exits = maze.getExitTiles();
+        long[] words = maze.getWalkableWords();
+
+        int bodyBytes = 4 * 2 + 4 * 2
+                + 4 + zombies.size() * 8
+                + 4 + exits.length * 8
+                + 4 + words.length * 8;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + bodyBytes);
+        buffer.position(HEADER_BYTES);
+
+        buffer.putInt(maze.getRows());
+        buffer.putInt(maze.getCols());
+
+        buffer.putInt(player == null ? -1 : player.x);
+        buffer.putInt(player == null ? -1 : player.y);
+
+        buffer.putInt(zombies.size());
+        for (Point p : zombies) {
+            buffer.putInt(p.x);
+            buffer.putInt(p.y);
+        }
+
+        buffer.putInt(exits.length);
+        for (int[] exit : exits) {
+            buffer.putInt(exit[0]);
+            buffer.putInt(exit[1]);
+        }
+
+        buffer.putInt(words.length);
+        buffer.asLongBuffer().put(words);
+
+        // Header last, once the checksum of the body is known
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, bodyBytes);
+
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putShort(6, FLAG_CHECKSUM);
+        buffer.putLong(8, crc.getValue());
+
+        buffer.position(0);
+        try (FileChannel channel = FileChannel.open(out.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads a compiled level into the given maze.
+     *
+     * @throws IOException if the file is missing, from another version, or corrupt
+     */
+    public static void readInto(Maze maze, File in) throws IOException {
+        try (FileChannel channel = FileChannel.open(in.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException("not a compiled level: " + in);
+            }
+            if (buffer.getShort() != VERSION) {
+                throw new IOException("unsupported level version: " + in);
+            }
+            short flags = buffer.getShort();
+            long checksum = buffer.getLong();
+
+            if ((flags & FLAG_CHECKSUM) != 0) {
+                CRC32 crc = new CRC32();
+                crc.update(buffer.duplicate());
+                if (crc.getValue() != checksum) throw new IOException("checksum mismatch: " + in);
+            }
+
+            int rows = buffer.getInt();
+            int cols = buffer.getInt();
+            maze.beginRows(cols, 0);
+
+            int playerRow = buffer.getInt();
+            int playerCol = buffer.getInt();
+            if (playerRow >= 0) maze.setPlayerSpawn(playerRow, playerCol);
+
+            int zombieCount = buffer.getInt();
+            for (int i = 0; i < zombieCount; i++) {
+                maze.addZombieSpawn(buffer.getInt(), buffer.getInt());
+            }
+
+            int exitCount = buffer.getInt();
+            int[] exits = new int[exitCount * 2];
+            for (int i = 0; i < exits.length; i++) exits[i] = buffer.getInt();
+
+            long[] words = new long[buffer.getInt()];
+            buffer.asLongBuffer().get(words);
+
+            maze.setRowCount(rows);
+            maze.setWalkableWords(words);
+            for (int i = 0; i < exits.length; i += 2) maze.addExit(exits[i], exits[i + 1]);
+
+        } catch (RuntimeException e) {
+            // Truncated buffers and the like
+            throw new IOException("corrupt compiled level: " + in, e);
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package model;
 
 import java.awt.Graphics2D;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
- * Handles camera effects like screen shake.
+ * Follows the player around mazes bigger than the window, and handles
+ * camera effects like screen shake.
  */
 public class Camera {
 
@@ -12,16 +13,49 @@ public class Camera {
     public static final int SHAKE_FRAMES = 8;
     public static final int SHAKE_STRENGTH = 3;
 
+    // Fraction of the distance to the target covered each update
+    public static final double DEFAULT_SMOOTHING = 0.15;
+
     private int shakeTimer = 0;
-    private final Random random = new Random();
+    private final SplittableRandom random;
 
     private int offsetX = 0;
     private int offsetY = 0;
 
+    // Top-left corner of the view, in maze pixels (negative when the maze is centered)
+    private double viewX = 0;
+    private double viewY = 0;
+    private int viewWidth = 0;
+    private int viewHeight = 0;
+
+    private double smoothing = DEFAULT_SMOOTHING;
+    private boolean snapNext = true;
+
+    // Maze followed last time, a different one means a new level
+    private Maze maze;
+
+    public Camera() {
+        this(new SplittableRandom());
+    }
+
+    //shakes the same way every run for the same stream
+    public Camera(SplittableRandom random) {
+        this.random = random;
+    }
+
     public void triggerShake() {
         shakeTimer = SHAKE_FRAMES;
     }
 
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    //jumps straight to the player on the next follow, e.g. after a level load
+    public void snap() {
+        snapNext = true;
+    }
+
     public void update() {
         if (shakeTimer > 0) {
             shakeTimer--;
@@ -33,11 +67,58 @@ public class Camera {
         }
     }
 
+    /**
+     * Moves the view toward the player, keeping it inside the maze.
+     * A maze smaller than the view is centered instead.
+     */
+    public void follow(Player player, Maze maze, int width, int height) {
+        follow(player.getX(), player.getY(), maze, width, height);
+    }
+
+    //same, for a player whose top-left corner is at (playerX, playerY)
+    public void follow(double playerX, double playerY, Maze maze, int width, int height) {
+        viewWidth = width;
+        viewHeight = height;
+
+        if (maze != this.maze) {
+            this.maze = maze;
+            snapNext = true;
+        }
+
+        double targetX = target(playerX + Player.SIZE / 2.0, Maze.TILE_SIZE * maze.getCols(), width);
+        double targetY = target(playerY + Player.SIZE / 2.0, Maze.TILE_SIZE * maze.getRows(), height);
+
+        if (snapNext) {
+            viewX = targetX;
+            viewY = targetY;
+            snapNext = false;
+        } else {
+            viewX += (targetX - viewX) * smoothing;
+            viewY += (targetY - viewY) * smoothing;
+        }
+    }
+
+    private static double target(double center, int mazeSize, int viewSize) {
+        if (mazeSize <= viewSize) return -(viewSize - mazeSize) / 2;
+        double t = center - viewSize / 2.0;
+        return Math.max(0, Math.min(mazeSize - viewSize, t));
+    }
+
+    // View rectangle in maze pixels, rounded the same way apply() rounds it
+    public int getViewX() { return (int) Math.round(viewX); }
+    public int getViewY() { return (int) Math.round(viewY); }
+    public int getViewWidth() { return viewWidth; }
+    public int getViewHeight() { return viewHeight; }
+
+    //screen position of a point in the maze, shake included
+    public int toScreenX(double mazeX) { return (int) mazeX - getViewX() + offsetX; }
+    public int toScreenY(double mazeY) { return (int) mazeY - getViewY() + offsetY; }
+
     public void apply(Graphics2D g2) {
-        g2.translate(offsetX, offsetY);
+        g2.translate(offsetX - getViewX(), offsetY - getViewY());
     }
 
     public void reset(Graphics2D g2) {
-        g2.translate(-offsetX, -offsetY);
+        g2.translate(getViewX() - offsetX, getViewY() - offsetY);
     }
 }
@@ -0,0 +1,124 @@
+package model;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/*
+ * Handles what happens when player collides with game components
+ */
+public class CollisionSystem {
+
+    // Power-up chances per collectible
+    public static final double FREEZE_CHANCE = 0.15;
+    public static final double DOUBLE_POINTS_CHANCE = 0.15;
+
+    public void update(GameSimulation sim) {
+        Player player = sim.getPlayer();
+        ZombieStore zombies = sim.getZombies();
+        List<Collectible> collectibles = sim.getCollectibles();
+        Maze maze = sim.getMaze();
+        SplittableRandom random = sim.getCollisionRandom();
+
+        double px = player.getX();
+        double py = player.getY();
+
+        // -------------------------------
+        // PLAYER–ZOMBIE COLLISIONS
+        // -------------------------------
+        SpatialGrid zombieGrid = zombies.getGrid();
+        int found = zombieGrid.query(px, py, px + Player.SIZE, py + Player.SIZE);
+        int[] nearby = zombieGrid.getResult();
+
+        for (int k = 0; k < found; k++) {
+            int i = nearby[k];
+            if (zombies.isInCollisionCooldown(i)) continue;
+
+            if (overlap(px, py, Player.SIZE,
+                    zombies.getX(i), zombies.getY(i), Zombie.SIZE)) {
+
+                zombies.triggerCollisionCooldown(i);
+
+                if (!player.isInvincible()) {
+                    player.loseLife();
+                    player.triggerInvincibility();
+                    player.triggerFlash();
+                    sim.playerHit();
+
+                    if (player.isDead()) {
+                        sim.endGame(GameMode.GAME_OVER);
+                        return;
+                    }
+                }
+            }
+        }
+
+        // -------------------------------
+        // PLAYER–COLLECTIBLE COLLISIONS
+        // -------------------------------
+        SpatialGrid collectibleGrid = sim.getCollectibleGrid();
+        found = collectibleGrid.query(px, py, px + Player.SIZE, py + Player.SIZE);
+        nearby = collectibleGrid.getResult();
+
+        for (int k = 0; k < found; k++) {
+            Collectible c = collectibles.get(nearby[k]);
+            if (!c.isCollected() &&
+                    overlap(px, py, Player.SIZE,
+                            c.getX(), c.getY(), Collectible.SIZE)) {
+
+                int earned = c.collect();
+                sim.collectibleCollected(nearby[k]);
+
+                // Double points
+                if (sim.isDoublePointsActive()) {
+                    earned *= 2;
+                }
+
+                player.addScore(earned);
+
+                // 15% chance: freeze
+                if (random.nextDouble() < FREEZE_CHANCE) {
+                    sim.activateFreeze();
+                }
+
+                // 15% chance: double points
+                if (random.nextDouble() < DOUBLE_POINTS_CHANCE) {
+                    sim.activateDoublePoints();
+                }
+
+                // Reset remaining collectibles
+                for (Collectible other : collectibles) {
+                    if (!other.isCollected()) {
+                        other.resetValue();
+                    }
+                }
+            }
+        }
+
+        // Unlock exit
+        if (sim.getCollectedCount() == collectibles.size()) {
+            sim.unlockExit();
+        }
+
+        // -------------------------------
+        // EXIT TILE CHECK
+        // -------------------------------
+        int tileSize = Maze.TILE_SIZE;
+        int row = (int) ((player.getY() + Player.SIZE / 2) / tileSize);
+        int col = (int) ((player.getX() + Player.SIZE / 2) / tileSize);
+
+        if (sim.isExitUnlocked() && maze.isExit(row, col)) {
+            sim.reachExit();
+        }
+    }
+
+    /**
+     * Simple AABB collision check between two square objects.
+     */
+    public static boolean overlap(double x1, double y1, int size1,
+                                  double x2, double y2, int size2) {
+        return x1 < x2 + size2 &&
+                x1 + size1 > x2 &&
+                y1 < y2 + size2 &&
+                y1 + size1 > y2;
+    }
+}
@@ -0,0 +1,241 @@
+package model;
+
+import java.util.Arrays;
+
+/*
+ * The maze as a graph of junctions joined by corridor segments
+ * A junction is a walkable tile without exactly two walkable neighbours (crossings, T's,
+ * dead ends, open rooms). Everything else is corridor, and a segment is the run of corridor
+ * tiles between two junctions, with both junctions at its ends
+ *
+ * A zombie on a segment knows every tile ahead of it, so it can walk to the next junction
+ * without looking at the maze and only has to decide where to go when it gets there
+ *
+ * A loop with no junction on it gets one of its tiles made a junction, a tile with no
+ * walkable neighbours is a junction with no exits
+ * Maze.setTile edits make update() build the whole graph again
+ */
+public class CorridorGraph {
+
+    private final Maze maze;
+    private final int rows;
+    private final int cols;
+
+    // Per tile: junction number, and segment number for corridor tiles (-1 = none)
+    private final int[] junctionAt;
+    private final int[] segmentAt;
+
+    private int junctionCount;
+    private int[] junctionTiles = new int[64];
+
+    // Per junction and direction: segment leaving that way, and whether it is walked end to start
+    private int[] exitSegment = new int[256];
+    private boolean[] exitReversed = new boolean[256];
+
+    // Segment s has tiles segmentTiles[segmentStart[s]] .. segmentTiles[segmentStart[s + 1] - 1]
+    private int segmentCount;
+    private int[] segmentStart = new int[65];
+    private int[] segmentTiles = new int[256];
+    private int tileCount;
+
+    // Directions leaving the first and the last junction into each segment
+    private byte[] firstExit = new byte[64];
+    private byte[] lastExit = new byte[64];
+
+    private long version;
+    private long builds = 0;
+
+    public CorridorGraph(Maze maze) {
+        this.maze = maze;
+        this.rows = maze.getRows();
+        this.cols = maze.getCols();
+        this.junctionAt = new int[rows * cols];
+        this.segmentAt = new int[rows * cols];
+        build();
+    }
+
+    public Maze getMaze() { return maze; }
+
+    //how many times the graph was built, goes up when update() rebuilds it
+    public long getBuilds() { return builds; }
+
+    public int getJunctionCount() { return junctionCount; }
+    public int getSegmentCount() { return segmentCount; }
+
+    /**
+     * Builds the graph again if the maze was edited since the last build.
+     *
+     * @return true when it was rebuilt, segment and junction numbers are then all new
+     */
+    public boolean update() {
+        if (maze.getVersion() == version) return false;
+        build();
+        return true;
+    }
+
+    //junction on the tile, -1 when it is a wall or corridor
+    public int junctionAt(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) return -1;
+        return junctionAt[row * cols + col];
+    }
+
+    //segment the corridor tile is on, -1 for walls and junctions
+    public int segmentAt(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) return -1;
+        return segmentAt[row * cols + col];
+    }
+
+    public int getJunctionTile(int junction) { return junctionTiles[junction]; }
+
+    //steps from one end of the segment to the other
+    public int getSegmentLength(int segment) {
+        return segmentStart[segment + 1] - segmentStart[segment] - 1;
+    }
+
+    //tile (row * cols + col) the given number of steps from the segment's first junction
+    public int getSegmentTile(int segment, int step) {
+        return segmentTiles[segmentStart[segment] + step];
+    }
+
+    //where on the segment the tile is, in steps from its first junction, -1 when not on it
+    public int indexOf(int segment, int tile) {
+        for (int i = segmentStart[segment]; i < segmentStart[segment + 1]; i++) {
+            if (segmentTiles[i] == tile) return i - segmentStart[segment];
+        }
+        return -1;
+    }
+
+    public int getFirstJunction(int segment) { return junctionAt[getSegmentTile(segment, 0)]; }
+    public int getLastJunction(int segment) {
+        return junctionAt[getSegmentTile(segment, getSegmentLength(segment))];
+    }
+
+    //direction leaving the first / last junction into the segment
+    public int getFirstExit(int segment) { return firstExit[segment]; }
+    public int getLastExit(int segment) { return lastExit[segment]; }
+
+    //segment leaving the junction that way, -1 when it is a wall
+    public int getExitSegment(int junction, int dir) { return exitSegment[junction * 4 + dir]; }
+
+    //true when the segment leaving that way starts at its last junction
+    public boolean isExitReversed(int junction, int dir) { return exitReversed[junction * 4 + dir]; }
+
+    // -------------------------------
+    // Building
+    // -------------------------------
+
+    private void build() {
+        version = maze.getVersion();
+        Arrays.fill(junctionAt, -1);
+        Arrays.fill(segmentAt, -1);
+        junctionCount = 0;
+        segmentCount = 0;
+        tileCount = 0;
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (maze.isWalkable(r, c) && degree(r, c) != 2) addJunction(r * cols + c);
+            }
+        }
+        for (int j = 0; j < junctionCount; j++) walkExits(j);
+
+        // Whatever corridor is left over is a loop with no junction on it
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int tile = r * cols + c;
+                if (maze.isWalkable(r, c) && junctionAt[tile] < 0 && segmentAt[tile] < 0) {
+                    walkExits(addJunction(tile));
+                }
+            }
+        }
+        builds++;
+    }
+
+    private int degree(int row, int col) {
+        int n = 0;
+        for (int d = 0; d < 4; d++) {
+            if (isOpen(row, col, d)) n++;
+        }
+        return n;
+    }
+
+    //is the neighbour of the tile that way walkable
+    private boolean isOpen(int row, int col, int dir) {
+        return maze.isWalkable(row + PathingStrategy.rowStep(dir), col + PathingStrategy.colStep(dir));
+    }
+
+    private int addJunction(int tile) {
+        int j = junctionCount++;
+        if (j == junctionTiles.length) junctionTiles = Arrays.copyOf(junctionTiles, j * 2);
+        if ((j + 1) * 4 > exitSegment.length) {
+            exitSegment = Arrays.copyOf(exitSegment, exitSegment.length * 2);
+            exitReversed = Arrays.copyOf(exitReversed, exitReversed.length * 2);
+        }
+        junctionTiles[j] = tile;
+        junctionAt[tile] = j;
+        Arrays.fill(exitSegment, j * 4, j * 4 + 4, -1);
+        return j;
+    }
+
+    //follows every way out of the junction that has no segment yet
+    private void walkExits(int j) {
+        int tile = junctionTiles[j];
+        int row = tile / cols;
+        int col = tile - row * cols;
+
+        for (int d = 0; d < 4; d++) {
+            if (exitSegment[j * 4 + d] >= 0) continue;
+            if (!isOpen(row, col, d)) continue;
+            walkSegment(j, d);
+        }
+    }
+
+    //walks from the junction along the corridor going that way until the next junction
+    private void walkSegment(int from, int dir) {
+        int s = segmentCount++;
+        if (s + 2 > segmentStart.length) segmentStart = Arrays.copyOf(segmentStart, segmentStart.length * 2);
+        if (s == firstExit.length) {
+            firstExit = Arrays.copyOf(firstExit, s * 2);
+            lastExit = Arrays.copyOf(lastExit, s * 2);
+        }
+        segmentStart[s] = tileCount;
+
+        int tile = junctionTiles[from];
+        int row = tile / cols;
+        int col = tile - row * cols;
+        addTile(tile);
+
+        int d = dir;
+        while (true) {
+            row += PathingStrategy.rowStep(d);
+            col += PathingStrategy.colStep(d);
+            tile = row * cols + col;
+            addTile(tile);
+            if (junctionAt[tile] >= 0) break;
+
+            segmentAt[tile] = s;
+            // Two ways out, carry on the one that is not back
+            int back = d ^ 1;
+            for (int k = 0; k < 4; k++) {
+                if (k != back && isOpen(row, col, k)) {
+                    d = k;
+                    break;
+                }
+            }
+        }
+        segmentStart[s + 1] = tileCount;
+
+        int to = junctionAt[tile];
+        firstExit[s] = (byte) dir;
+        lastExit[s] = (byte) (d ^ 1);
+        exitSegment[from * 4 + dir] = s;
+        exitReversed[from * 4 + dir] = false;
+        exitSegment[to * 4 + (d ^ 1)] = s;
+        exitReversed[to * 4 + (d ^ 1)] = true;
+    }
+
+    private void addTile(int tile) {
+        if (tileCount == segmentTiles.length) segmentTiles = Arrays.copyOf(segmentTiles, tileCount * 2);
+        segmentTiles[tileCount++] = tile;
+    }
+}
@@ -1,7 +1,5 @@
 package model;
 
-import java.util.List;
-
 /**
  * Computes whether the player is in danger based on nearby zombies.
  */
@@ -17,21 +15,45 @@ public class DangerDetector {
     }
 
     //checks the distance between players and zombies
-    public void update(Player player, List<Zombie> zombies) {
+    public void update(Player player, ZombieView zombies) {
+        double dangerDistancePixels = DANGER_DISTANCE_TILES * Maze.TILE_SIZE;
+        double px = player.getX();
+        double py = player.getY();
+
+        inDanger = false;
+
+        for (int i = 0; i < zombies.size(); i++) {
+            if (isClose(px, py, zombies.getX(i), zombies.getY(i), dangerDistancePixels)) {
+                inDanger = true;
+                return;
+            }
+        }
+    }
+
+    //same check, but only looks at the zombies in the grid buckets around the player
+    public void update(Player player, ZombieView zombies, SpatialGrid grid) {
         double dangerDistancePixels = DANGER_DISTANCE_TILES * Maze.TILE_SIZE;
         double px = player.getX();
         double py = player.getY();
 
         inDanger = false;
 
-        for (Zombie z : zombies) {
-            double dx = px - z.getX();
-            double dy = py - z.getY();
-            double dist = Math.sqrt(dx * dx + dy * dy);
-            if (dist < dangerDistancePixels) {
+        int found = grid.query(px - dangerDistancePixels, py - dangerDistancePixels,
+                px + dangerDistancePixels, py + dangerDistancePixels);
+        int[] ids = grid.getResult();
+
+        for (int k = 0; k < found; k++) {
+            int i = ids[k];
+            if (isClose(px, py, zombies.getX(i), zombies.getY(i), dangerDistancePixels)) {
                 inDanger = true;
                 return;
             }
         }
     }
+
+    private boolean isClose(double px, double py, double zx, double zy, double distance) {
+        double dx = px - zx;
+        double dy = py - zy;
+        return dx * dx + dy * dy < distance * distance;
+    }
 }
@@ -0,0 +1,61 @@
+package model;
+
+/*
+ * Turns real elapsed time into whole GameSimulation steps
+ * Leftover time is kept in an accumulator so the game runs at the same speed
+ * no matter how often advance() is called
+ */
+public class FixedStepDriver {
+
+    // Never try to catch up more than this many steps in one call
+    public static final int MAX_STEPS_PER_ADVANCE = 5;
+
+    private final GameSimulation sim;
+
+    private long lastTime = -1;
+    private long accumulator = 0;
+
+    public FixedStepDriver(GameSimulation sim) {
+        this.sim = sim;
+    }
+
+    /**
+     * Runs as many fixed steps as fit into the time since the last call.
+     *
+     * @param now   the current time from System.nanoTime()
+     * @param input the keys held down
+     * @return the number of steps that were run
+     */
+    public int advance(long now, InputState input) {
+        if (lastTime < 0) {
+            lastTime = now;
+            return 0;
+        }
+
+        accumulator += now - lastTime;
+        lastTime = now;
+
+        // Drop time we could not catch up on instead of spiralling
+        long maxBacklog = MAX_STEPS_PER_ADVANCE * GameSimulation.NANOS_PER_TICK;
+        if (accumulator > maxBacklog) accumulator = maxBacklog;
+
+        int steps = 0;
+        while (accumulator >= GameSimulation.NANOS_PER_TICK) {
+            sim.step(input);
+            accumulator -= GameSimulation.NANOS_PER_TICK;
+            steps++;
+        }
+        return steps;
+    }
+
+    //fraction of the next step that has already elapsed, from 0 to 1
+    public double getAlpha() {
+        return accumulator / (double) GameSimulation.NANOS_PER_TICK;
+    }
+
+    //forgets the clock, e.g. while paused, so the game does not jump ahead afterwards
+    public void reset() {
+        lastTime = -1;
+        accumulator = 0;
+    }
+}
@@ -0,0 +1,158 @@
+package model;
+
+import java.util.Arrays;
+
+/*
+ * Distance from every tile to the player's tile, found by a breadth-first search over the maze
+ * Each tile also keeps which neighbour is one step closer, so a zombie finds its next move
+ * with one array read and one field serves any number of zombies
+ *
+ * The search only runs again when the player reaches a new tile, and reuses its arrays
+ */
+public class FlowField implements PathingStrategy {
+
+    private final Maze maze;
+    private final int rows;
+    private final int cols;
+
+    // Arrays are indexed (row + 1) * stride + (col + 1), with a ring of wall around the
+    // maze, so the four neighbours of a tile are fixed offsets away and never out of bounds
+    private final int stride;
+    private final int[] offsets;
+    private final boolean[] open;
+
+    // -1 = not reachable from the target
+    private final int[] distance;
+    private final byte[] direction;
+    private final int[] queue;
+
+    private int targetRow = -1;
+    private int targetCol = -1;
+    private long builds = 0;
+
+    // Maze version the open tiles were copied at
+    private long version;
+
+    public FlowField(Maze maze) {
+        this.maze = maze;
+        this.rows = maze.getRows();
+        this.cols = maze.getCols();
+        this.stride = cols + 2;
+        this.offsets = new int[] { -stride, stride, -1, 1 };
+
+        int size = (rows + 2) * stride;
+        this.open = new boolean[size];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                open[index(r, c)] = maze.isWalkable(r, c);
+            }
+        }
+        this.version = maze.getVersion();
+
+        this.distance = new int[size];
+        this.direction = new byte[size];
+        this.queue = new int[size];
+        Arrays.fill(distance, -1);
+        Arrays.fill(direction, (byte) NONE);
+    }
+
+    private int index(int row, int col) {
+        return (row + 1) * stride + (col + 1);
+    }
+
+    public Maze getMaze() { return maze; }
+
+    //how many times the field was searched, for stats
+    public long getBuilds() { return builds; }
+
+    /**
+     * Points the field at a new target tile. Searches again only when the tile
+     * or the maze changed.
+     *
+     * @return true when the field was searched again
+     */
+    public boolean update(int row, int col) {
+        boolean edited = maze.getVersion() != version;
+        if (edited) copyEdits();
+
+        if (!edited && row == targetRow && col == targetCol) return false;
+
+        if (maze.isWalkable(row, col)) {
+            targetRow = row;
+            targetCol = col;
+        } else if (!edited) {
+            return false;
+        }
+
+        if (maze.isWalkable(targetRow, targetCol)) {
+            build();
+        } else {
+            // The target was walled in, nothing leads anywhere until it moves
+            Arrays.fill(distance, -1);
+            Arrays.fill(direction, (byte) NONE);
+        }
+        builds++;
+        return true;
+    }
+
+    //brings the open tiles up to date with Maze.setTile edits
+    private void copyEdits() {
+        boolean logged = maze.changesSince(version, tile -> {
+            int r = tile / cols;
+            int c = tile - r * cols;
+            open[index(r, c)] = maze.isWalkable(r, c);
+        });
+        if (!logged) {
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    open[index(r, c)] = maze.isWalkable(r, c);
+                }
+            }
+        }
+        version = maze.getVersion();
+    }
+
+    //steps from the tile to the target, -1 when it cannot be reached
+    public int getDistance(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) return -1;
+        return distance[index(row, col)];
+    }
+
+    //which way is one step closer to the target, NONE on the target or when unreachable
+    public int getDirection(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) return NONE;
+        return direction[index(row, col)];
+    }
+
+    @Override
+    public int nextDirection(int row, int col) {
+        return getDirection(row, col);
+    }
+
+    private void build() {
+        Arrays.fill(distance, -1);
+        Arrays.fill(direction, (byte) NONE);
+
+        int start = index(targetRow, targetCol);
+        distance[start] = 0;
+        direction[start] = NONE;
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int t = queue[head++];
+            int d = distance[t] + 1;
+
+            for (int k = 0; k < 4; k++) {
+                int n = t + offsets[k];
+                if (!open[n] || distance[n] >= 0) continue;
+
+                distance[n] = d;
+                direction[n] = (byte) (k ^ 1);  // back the way the search came
+                queue[tail++] = n;
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package model;
+
+import java.util.concurrent.Executor;
+
+/*
+ * Passes simulation events on to another listener through an Executor
+ * Used when the simulation runs on its own thread, so the screen still
+ * handles every event on its own thread, in the order they happened
+ */
+public class ForwardingListener implements SimulationListener {
+
+    private final SimulationListener target;
+    private final Executor executor;
+
+    public ForwardingListener(SimulationListener target, Executor executor) {
+        this.target = target;
+        this.executor = executor;
+    }
+
+    @Override
+    public void playerHit() { executor.execute(target::playerHit); }
+
+    @Override
+    public void freezeStarted() { executor.execute(target::freezeStarted); }
+
+    @Override
+    public void freezeEnded() { executor.execute(target::freezeEnded); }
+
+    @Override
+    public void doublePointsStarted() { executor.execute(target::doublePointsStarted); }
+
+    @Override
+    public void doublePointsEnded() { executor.execute(target::doublePointsEnded); }
+
+    @Override
+    public void mazeLoaded(Maze maze) { executor.execute(() -> target.mazeLoaded(maze)); }
+
+    @Override
+    public void levelStarted(int level) { executor.execute(() -> target.levelStarted(level)); }
+
+    @Override
+    public void gameEnded(GameMode mode, int score) {
+        executor.execute(() -> target.gameEnded(mode, score));
+    }
+}
@@ -0,0 +1,179 @@
+package model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/*
+ * Times each phase of a frame (simulation steps and drawing) into fixed rings of samples
+ * begin()/end() only store System.nanoTime() values, so recording allocates nothing
+ * Percentiles are worked out on demand in a preallocated scratch array
+ *
+ * Phases can be recorded from different threads (simulation and render), one phase
+ * is only ever written by one thread
+ */
+public class FrameProfiler {
+
+    public enum Phase {
+        PLAYER_MOVE("player move"),
+        FLOW_FIELD("flow field"),
+        ZOMBIE_UPDATE("zombie update"),
+        COLLECTIBLE_DECAY("collectible decay"),
+        COLLISION("collision"),
+        DANGER("danger"),
+        RENDER_WORLD("render world"),
+        NIGHT_MODE("night mode"),
+        HUD("hud"),
+        OVERLAYS("overlays"),
+        FRAME("frame interval");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() { return label; }
+    }
+
+    // Samples kept per phase, older ones are overwritten
+    public static final int WINDOW = 600;
+
+    private static final Phase[] PHASES = Phase.values();
+
+    // A profiler that never records, for code that has none set
+    public static final FrameProfiler DISABLED = new FrameProfiler();
+
+    private volatile boolean enabled = false;
+
+    private final long[][] samples = new long[PHASES.length][WINDOW];
+    private final int[] next = new int[PHASES.length];
+    private final long[] recorded = new long[PHASES.length];
+    private final long[] started = new long[PHASES.length];
+
+    private long lastFrame = -1;
+
+    // Used by the stats methods, which run on one thread at a time
+    private final long[] scratch = new long[WINDOW];
+
+    public boolean isEnabled() { return enabled; }
+
+    public void setEnabled(boolean enabled) {
+        if (this == DISABLED) return;
+        this.enabled = enabled;
+        lastFrame = -1;
+    }
+
+    public void begin(Phase phase) {
+        if (enabled) started[phase.ordinal()] = System.nanoTime();
+    }
+
+    public void end(Phase phase) {
+        if (enabled) record(phase, System.nanoTime() - started[phase.ordinal()]);
+    }
+
+    //marks the start of a frame, the time between two marks is the FRAME sample
+    public void frame() {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        if (lastFrame >= 0) record(Phase.FRAME, now - lastFrame);
+        lastFrame = now;
+    }
+
+    private void record(Phase phase, long nanos) {
+        int p = phase.ordinal();
+        samples[p][next[p]] = nanos;
+        next[p] = (next[p] + 1) % WINDOW;
+        recorded[p]++;
+    }
+
+    //total samples recorded for the phase since the start
+    public long getRecorded(Phase phase) {
+        return recorded[phase.ordinal()];
+    }
+
+    //samples currently in the window
+    public int getCount(Phase phase) {
+        return (int) Math.min(WINDOW, recorded[phase.ordinal()]);
+    }
+
+    /**
+     * Returns the given percentile (0..100) of the samples in the window, in nanoseconds.
+     */
+    public synchronized long percentile(Phase phase, double percent) {
+        int n = copy(phase);
+        if (n == 0) return 0;
+        int k = (int) Math.min(n - 1, Math.max(0, Math.ceil(percent / 100.0 * n) - 1));
+        return select(scratch, n, k);
+    }
+
+    public synchronized long max(Phase phase) {
+        int n = copy(phase);
+        long max = 0;
+        for (int i = 0; i < n; i++) max = Math.max(max, scratch[i]);
+        return max;
+    }
+
+    public synchronized double mean(Phase phase) {
+        int n = copy(phase);
+        if (n == 0) return 0;
+        long sum = 0;
+        for (int i = 0; i < n; i++) sum += scratch[i];
+        return sum / (double) n;
+    }
+
+    //frames per second over the window
+    public double getFps() {
+        double mean = mean(Phase.FRAME);
+        return mean == 0 ? 0 : 1e9 / mean;
+    }
+
+    private int copy(Phase phase) {
+        int n = getCount(phase);
+        System.arraycopy(samples[phase.ordinal()], 0, scratch, 0, n);
+        return n;
+    }
+
+    //k-th smallest of a[0..n), moving elements around (quickselect)
+    private static long select(long[] a, int n, int k) {
+        int lo = 0;
+        int hi = n - 1;
+        while (lo < hi) {
+            long pivot = a[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    long t = a[i];
+                    a[i] = a[j];
+                    a[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                break;
+            }
+        }
+        return a[k];
+    }
+
+    /**
+     * Writes one line per phase: samples in the window, p50, p99, max and mean in microseconds.
+     */
+    public void writeCsv(Writer out) throws IOException {
+        out.write("phase,samples,p50_us,p99_us,max_us,mean_us\n");
+        for (Phase phase : PHASES) {
+            out.write(String.format(Locale.ROOT, "%s,%d,%.1f,%.1f,%.1f,%.1f\n",
+                    phase.name().toLowerCase(Locale.ROOT), getCount(phase),
+                    percentile(phase, 50) / 1e3, percentile(phase, 99) / 1e3,
+                    max(phase) / 1e3, mean(phase) / 1e3));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/*
+ * The one random source of a game, everything random in it comes from a stream handed out here
+ * A stream is picked by kind and number (e.g. the spawner of the 3rd level started), and is
+ * worked out from the seed alone, so asking for streams in another order, or drawing more
+ * from one of them, never changes what the others give. The same seed plays the same game
+ *
+ * Every stream is its own SplittableRandom, nothing is shared between subsystems or threads
+ */
+public class GameRandom {
+
+    // What a stream is for
+    public enum Stream { SPAWNER, ZOMBIES, COLLISIONS, CAMERA }
+
+    // Same odd constant SplittableRandom steps its seed by
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+
+    public GameRandom(long seed) {
+        this.seed = seed;
+    }
+
+    //a game nobody asked to repeat, getSeed() still tells how to play it again
+    public static GameRandom unseeded() {
+        return new GameRandom(new SplittableRandom().nextLong());
+    }
+
+    public long getSeed() { return seed; }
+
+    /**
+     * Gives the stream of that kind and number, always the same one for the same seed.
+     *
+     * @param index which one of the kind, e.g. a level start or an entity number
+     */
+    public SplittableRandom stream(Stream kind, long index) {
+        long key = mix(seed + (kind.ordinal() + 1) * GOLDEN_GAMMA);
+        return new SplittableRandom(mix(key + (index + 1) * GOLDEN_GAMMA));
+    }
+
+    //SplitMix64's finalizer, so nearby seeds and numbers give unrelated streams
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,390 @@
+package model;
+
+import java.io.File;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Runs the game rules one fixed step at a time, without any drawing or Swing code
+ * GameComponent drives it from the timer, headless tools can call step() as fast as they like
+ *
+ * Owns the level progression, the power-up timers and the collision/danger checks
+ */
+public class GameSimulation {
+
+    // Fixed timestep constants
+    public static final int TICKS_PER_SECOND = 60;
+    public static final long NANOS_PER_TICK = 1_000_000_000L / TICKS_PER_SECOND;
+
+    // Power-up and transition lengths, in ticks
+    public static final int FREEZE_TICKS = 3 * TICKS_PER_SECOND;
+    public static final int DOUBLE_POINTS_TICKS = 5 * TICKS_PER_SECOND;
+    public static final int TRANSITION_TICKS = 3 * TICKS_PER_SECOND;
+
+    // Level files
+    public static final String DEFAULT_LEVEL_FOLDER = "bin/levels/";
+    public static final int MAX_LEVEL = 2;
+
+    private final String levelFolder;
+    private final LevelCache levelCache;
+    private final CollisionSystem collisionSystem = new CollisionSystem();
+    private final DangerDetector dangerDetector = new DangerDetector();
+
+    // Every random thing in the game comes from here, each level start gets fresh streams
+    private final GameRandom random;
+    private long levelStarts = 0;
+    private SplittableRandom collisionRandom;
+
+    private SimulationListener listener = new SimulationListener() {};
+    private FrameProfiler profiler = FrameProfiler.DISABLED;
+
+    // Game world objects
+    private Maze maze;
+    private Player player;
+    private ZombieStore zombies;
+    private List<Collectible> collectibles;
+    private SpatialGrid collectibleGrid;
+    private Spawner spawner;
+    private long zombieSeed;
+
+    // PLAYING, TRANSITION, WIN or GAME_OVER
+    private GameMode mode = GameMode.PLAYING;
+    private long tick = 0;
+
+    // Level progression
+    private int collectedCount = 0;
+    private boolean exitUnlocked = false;
+    private int currentLevel = 1;
+    private int carryoverScore = 0;
+    private int transitionTicks = 0;
+
+    // How zombies move, and the field they follow when they chase
+    private ZombieMovement zombieMovement = ZombieMovement.WANDER;
+    private FlowField flowField;
+    private CorridorGraph corridorGraph;
+
+    // Moves far away zombies less often
+    private final ZombieScheduler zombieScheduler = new ZombieScheduler();
+
+    // Where big hordes are moved in parallel, handed to each level's ZombieStore
+    private ForkJoinPool zombiePool = ForkJoinPool.commonPool();
+    private int zombieParallelThreshold = ZombieStore.DEFAULT_PARALLEL_THRESHOLD;
+
+    // Set while playing a maze given to playMaze instead of the level files
+    private Maze customMaze;
+    private int customZombieCount;
+
+    // Power-ups
+    private int freezeTicks = 0;
+    private int doublePointsTicks = 0;
+
+    public GameSimulation() {
+        this(DEFAULT_LEVEL_FOLDER);
+    }
+
+    public GameSimulation(String levelFolder) {
+        this(levelFolder, new LevelCache());
+    }
+
+    //games sharing one cache only parse each level file once between them
+    public GameSimulation(String levelFolder, LevelCache levelCache) {
+        this(levelFolder, levelCache, GameRandom.unseeded().getSeed());
+    }
+
+    //the same seed and the same input play the same game, tick for tick
+    public GameSimulation(String levelFolder, LevelCache levelCache, long seed) {
+        this.levelFolder = levelFolder;
+        this.levelCache = levelCache;
+        this.random = new GameRandom(seed);
+        loadLevel(currentLevel);
+    }
+
+    public void setListener(SimulationListener listener) {
+        this.listener = listener;
+    }
+
+    //times the phases of each step while the profiler is enabled
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public Maze getMaze() { return maze; }
+    public ZombieMovement getZombieMovement() { return zombieMovement; }
+    public FlowField getFlowField() { return flowField; }
+    public CorridorGraph getCorridorGraph() { return corridorGraph; }
+    public ZombieScheduler getZombieScheduler() { return zombieScheduler; }
+    public Player getPlayer() { return player; }
+    public ZombieStore getZombies() { return zombies; }
+    public List<Collectible> getCollectibles() { return collectibles; }
+    public SpatialGrid getCollectibleGrid() { return collectibleGrid; }
+    public int getCollectedCount() { return collectedCount; }
+
+    public GameMode getMode() { return mode; }
+    public long getTick() { return tick; }
+    public int getCurrentLevel() { return currentLevel; }
+    public int getTransitionTicks() { return transitionTicks; }
+    public boolean isInDanger() { return dangerDetector.isInDanger(); }
+    public boolean isFinished() { return mode == GameMode.WIN || mode == GameMode.GAME_OVER; }
+
+    public boolean isFreezeActive() { return freezeTicks > 0; }
+    public boolean isDoublePointsActive() { return doublePointsTicks > 0; }
+    public boolean isExitUnlocked() { return exitUnlocked; }
+
+    public GameRandom getRandom() { return random; }
+    public long getSeed() { return random.getSeed(); }
+
+    SplittableRandom getCollisionRandom() { return collisionRandom; }
+
+    /**
+     * Moves hordes of at least threshold zombies on the pool, for this level and the ones
+     * after it. Integer.MAX_VALUE keeps them on the simulation thread.
+     */
+    public void setZombieParallelism(ForkJoinPool pool, int threshold) {
+        zombiePool = pool;
+        zombieParallelThreshold = threshold;
+        zombies.setParallelism(pool, threshold);
+    }
+
+    /**
+     * Switches how zombies move, for this level and the ones after it.
+     */
+    public void setZombieMovement(ZombieMovement movement) {
+        zombieMovement = movement;
+        applyZombieMovement();
+    }
+
+    //one flow field / corridor graph per maze, made the first time a movement needs it
+    private void applyZombieMovement() {
+        if (zombieMovement == ZombieMovement.CHASE
+                && (flowField == null || flowField.getMaze() != maze)) {
+            flowField = new FlowField(maze);
+        }
+        if (zombieMovement == ZombieMovement.CORRIDOR
+                && (corridorGraph == null || corridorGraph.getMaze() != maze)) {
+            corridorGraph = new CorridorGraph(maze);
+        }
+        zombies.setMovement(zombieMovement, flowField, corridorGraph);
+    }
+
+    /**
+     * Loads a level from file, initializes the maze and spawner,
+     * and resets the game state.
+     *
+     * @param level the level number to load
+     */
+    public void loadLevel(int level) {
+        currentLevel = level;
+        customMaze = null;
+
+        // Level-specific zombie counts
+        int zombieCount = Spawner.DEFAULT_ZOMBIE_COUNT;
+        if (level == 1) {
+            zombieCount = 8;
+        } else if (level == 2) {
+            zombieCount = 10;
+        }
+
+        startMaze(levelCache.load(new File(levelFolder + "level" + level + ".txt")), zombieCount);
+    }
+
+    /**
+     * Plays on a maze that did not come from a level file (e.g. from MazeGenerator).
+     * Reaching its exit wins the game and restart() starts the same maze over.
+     *
+     * @param zombieCount zombies to spawn, unless the maze has its own spawn tiles
+     */
+    public void playMaze(Maze maze, int zombieCount) {
+        currentLevel = 1;
+        carryoverScore = 0;
+        transitionTicks = 0;
+        mode = GameMode.PLAYING;
+
+        startMaze(maze, zombieCount);
+        customMaze = maze;
+        customZombieCount = zombieCount;
+    }
+
+    private void startMaze(Maze maze, int zombieCount) {
+        this.maze = maze;
+        long start = levelStarts++;
+        spawner = new Spawner(maze, random.stream(GameRandom.Stream.SPAWNER, start));
+        zombieSeed = random.stream(GameRandom.Stream.ZOMBIES, start).nextLong();
+        collisionRandom = random.stream(GameRandom.Stream.COLLISIONS, start);
+        spawner.setZombieCount(zombieCount);
+
+        resetLevelState();
+        listener.mazeLoaded(maze);
+    }
+
+    /**
+     * Spawns player, zombies, and collectibles and clears the power-ups.
+     */
+    private void resetLevelState() {
+        player = spawner.spawnPlayer();
+        List<Zombie> spawned = spawner.spawnZombies(player);
+        zombies = ZombieStore.from(spawned, maze, zombieSeed);
+        zombies.setParallelism(zombiePool, zombieParallelThreshold);
+        applyZombieMovement();
+        collectibles = spawner.spawnCollectibles(spawned);
+
+        // Collectibles never move, they only leave the grid when picked up
+        collectibleGrid = new SpatialGrid(maze.getRows(), maze.getCols(), Collectible.SIZE);
+        for (int i = 0; i < collectibles.size(); i++) {
+            Collectible c = collectibles.get(i);
+            collectibleGrid.insert(i, c.getX(), c.getY());
+        }
+
+        collectedCount = 0;
+        exitUnlocked = false;
+
+        // Carry score across levels
+        player.addScore(carryoverScore);
+
+        freezeTicks = 0;
+        doublePointsTicks = 0;
+    }
+
+    /**
+     * Fully restarts the game back to level 1.
+     */
+    public void restart() {
+        if (customMaze != null) {
+            playMaze(customMaze, customZombieCount);
+            return;
+        }
+
+        carryoverScore = 0;
+        transitionTicks = 0;
+        mode = GameMode.PLAYING;
+        loadLevel(1);
+    }
+
+    /**
+     * Advances the game by exactly one fixed step.
+     *
+     * @param input the keys held down during this step
+     */
+    public void step(InputState input) {
+        tick++;
+
+        // Level transition countdown, nothing moves
+        if (mode == GameMode.TRANSITION) {
+            transitionTicks--;
+            if (transitionTicks <= 0) {
+                transitionTicks = 0;
+                mode = GameMode.PLAYING;
+            }
+            return;
+        }
+
+        if (mode == GameMode.PLAYING) {
+            updateGameLogic(input);
+        }
+    }
+
+    /**
+     * Updates all gameplay logic: movement, zombies, collectibles,
+     * power-ups, collisions, and danger detection.
+     */
+    private void updateGameLogic(InputState input) {
+        player.tickInvincibility();
+        player.tickFlash();
+
+        // Player movement
+        profiler.begin(FrameProfiler.Phase.PLAYER_MOVE);
+        player.move(input.isUp(), input.isDown(), input.isLeft(), input.isRight());
+        profiler.end(FrameProfiler.Phase.PLAYER_MOVE);
+
+        // Zombie movement (disabled during freeze)
+        if (freezeTicks == 0) {
+            // Chasing zombies need the field pointed at the player's tile first
+            if (zombieMovement == ZombieMovement.CHASE) {
+                profiler.begin(FrameProfiler.Phase.FLOW_FIELD);
+                flowField.update((int) ((player.getY() + Player.SIZE / 2.0) / Maze.TILE_SIZE),
+                                 (int) ((player.getX() + Player.SIZE / 2.0) / Maze.TILE_SIZE));
+                profiler.end(FrameProfiler.Phase.FLOW_FIELD);
+            }
+
+            profiler.begin(FrameProfiler.Phase.ZOMBIE_UPDATE);
+            zombieScheduler.update(zombies, tick,
+                    player.getX() + Player.SIZE / 2.0, player.getY() + Player.SIZE / 2.0);
+            profiler.end(FrameProfiler.Phase.ZOMBIE_UPDATE);
+        }
+
+        // Update collectible animations
+        profiler.begin(FrameProfiler.Phase.COLLECTIBLE_DECAY);
+        for (Collectible c : collectibles) {
+            c.updateValue();
+        }
+        profiler.end(FrameProfiler.Phase.COLLECTIBLE_DECAY);
+
+        // Freeze power-up expiration
+        if (freezeTicks > 0) {
+            freezeTicks--;
+            if (freezeTicks == 0) listener.freezeEnded();
+        }
+
+        // Double points expiration
+        if (doublePointsTicks > 0) {
+            doublePointsTicks--;
+            if (doublePointsTicks == 0) listener.doublePointsEnded();
+        }
+
+        // Collision handling
+        profiler.begin(FrameProfiler.Phase.COLLISION);
+        collisionSystem.update(this);
+        profiler.end(FrameProfiler.Phase.COLLISION);
+
+        // Danger detection for HUD
+        profiler.begin(FrameProfiler.Phase.DANGER);
+        dangerDetector.update(player, zombies, zombies.getGrid());
+        profiler.end(FrameProfiler.Phase.DANGER);
+    }
+
+    // -------------------------------
+    // Called by CollisionSystem
+    // -------------------------------
+    void playerHit() {
+        listener.playerHit();
+    }
+
+    void activateFreeze() {
+        freezeTicks = FREEZE_TICKS;
+        listener.freezeStarted();
+    }
+
+    void activateDoublePoints() {
+        doublePointsTicks = DOUBLE_POINTS_TICKS;
+        listener.doublePointsStarted();
+    }
+
+    void collectibleCollected(int index) {
+        collectibleGrid.remove(index);
+        collectedCount++;
+    }
+
+    void unlockExit() {
+        exitUnlocked = true;
+    }
+
+    //moves on to the next level, or wins on the last one (and on a custom maze)
+    void reachExit() {
+        if (customMaze == null && currentLevel < MAX_LEVEL) {
+            carryoverScore = player.getScore();
+            loadLevel(currentLevel + 1);
+
+            mode = GameMode.TRANSITION;
+            transitionTicks = TRANSITION_TICKS;
+            listener.levelStarted(currentLevel);
+            return;
+        }
+
+        endGame(GameMode.WIN);
+    }
+
+    void endGame(GameMode result) {
+        mode = result;
+        listener.gameEnded(result, player.getScore());
+    }
+}
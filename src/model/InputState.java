@@ -0,0 +1,37 @@
+package model;
+
+/*
+ * Holds the movement keys that are held down for one simulation step
+ * Filled in by the keyboard in the game, or by a script when running headless
+ */
+public class InputState {
+
+    // Written by the keyboard thread, read by the simulation thread
+    private volatile boolean up;
+    private volatile boolean down;
+    private volatile boolean left;
+    private volatile boolean right;
+
+    public boolean isUp()    { return up; }
+    public boolean isDown()  { return down; }
+    public boolean isLeft()  { return left; }
+    public boolean isRight() { return right; }
+
+    public void setUp(boolean value)    { up = value; }
+    public void setDown(boolean value)  { down = value; }
+    public void setLeft(boolean value)  { left = value; }
+    public void setRight(boolean value) { right = value; }
+
+    //sets all four directions at once
+    public void set(boolean up, boolean down, boolean left, boolean right) {
+        this.up = up;
+        this.down = down;
+        this.left = left;
+        this.right = right;
+    }
+
+    //releases every key
+    public void clear() {
+        up = down = left = right = false;
+    }
+}
@@ -0,0 +1,105 @@
+package model;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Keeps recently loaded mazes in memory so restarts and retries do not read the level file again
+ * Entries are keyed by path and checked against the file's modification time,
+ * so an edited (or newly compiled) level is picked up on the next load
+ *
+ * Holds at most maxEntries mazes and drops the least recently used one first
+ * Safe to share between games running on different threads
+ */
+public class LevelCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 8;
+
+    /*
+     * One parsed level and the file times it was parsed from
+     */
+    private static class Entry {
+        final Maze maze;
+        final long textModified;
+        final long compiledModified;
+
+        Entry(Maze maze, long textModified, long compiledModified) {
+            this.maze = maze;
+            this.textModified = textModified;
+            this.compiledModified = compiledModified;
+        }
+    }
+
+    private int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    public LevelCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public LevelCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+
+        // Access order, so the eldest entry is the least recently used
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > LevelCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+
+        // Trim right away if the bound got smaller
+        while (entries.size() > maxEntries) {
+            String eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+        }
+    }
+
+    public synchronized int getMaxEntries() { return maxEntries; }
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+
+    /**
+     * Returns a maze for the given level file, parsing it only when it is not
+     * cached yet or the file changed since.
+     *
+     * @return a separate Maze for this game, sharing the parsed data with the cache
+     */
+    public Maze load(File file) {
+        String key = file.getPath();
+        long textModified = file.lastModified();
+        File compiled = BinaryLevel.compiledFileFor(file);
+        long compiledModified = compiled == null ? 0L : compiled.lastModified();
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.textModified == textModified
+                    && entry.compiledModified == compiledModified) {
+                hits++;
+                return entry.maze.copy();
+            }
+            misses++;
+        }
+
+        // Parse outside the lock so other levels can still be served
+        Maze maze = new Maze(file);
+
+        synchronized (this) {
+            entries.put(key, new Entry(maze, textModified, compiledModified));
+        }
+        return maze.copy();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,215 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * Reads a level text file straight into a Maze in one pass over a memory-mapped file
+ * The file is decoded as UTF-8 byte by byte, so no String or char[] is made per line
+ *
+ * Same rules as the level legend: █ wall, X/x exit, P/p player, Z/z zombie,
+ * anything else floor, lines starting with # and blank lines are skipped
+ */
+public class MappedLevelLoader {
+
+    // Files are mapped in windows of this size, so files over 2 GB work too
+    private static final long WINDOW_BYTES = 1L << 28;
+
+    // UTF-8 bytes of the wall glyph '█' (U+2588)
+    private static final int WALL_GLYPH_UTF8 = 0xE29688;
+
+    // Cell codes while reading
+    private static final int FLOOR = 0;
+    private static final int WALL = 1;
+    private static final int EXIT = 2;
+    private static final int PLAYER = 3;
+    private static final int ZOMBIE = 4;
+
+    private final File file;
+
+    private Maze maze;
+    private long fileBytes;
+
+    // Current line
+    private long lineBegin = 0;
+    private boolean lineStart = true;
+    private boolean inComment = false;
+    private boolean lineHasContent = false;
+    private int col = 0;
+
+    // Partly read UTF-8 character
+    private int utf8Remaining = 0;
+    private int utf8Bytes = 0;
+
+    // The first line is kept until its end tells us the maze width
+    private int cols = -1;
+    private byte[] firstLine = new byte[64];
+
+    private int rows = 0;
+    private long loadNanos = 0;
+
+    public MappedLevelLoader(File file) {
+        this.file = file;
+    }
+
+    public int getRowsLoaded() { return rows; }
+    public long getLoadNanos() { return loadNanos; }
+
+    public double getRowsPerSecond() {
+        return loadNanos == 0 ? 0 : rows * 1e9 / loadNanos;
+    }
+
+    /**
+     * Reads the whole file into the given maze.
+     *
+     * @throws IOException if the file cannot be read or has no maze rows
+     */
+    public void loadInto(Maze maze) throws IOException {
+        this.maze = maze;
+        long start = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            fileBytes = channel.size();
+
+            for (long pos = 0; pos < fileBytes; pos += WINDOW_BYTES) {
+                long length = Math.min(WINDOW_BYTES, fileBytes - pos);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, length);
+
+                while (window.hasRemaining()) {
+                    readByte(window.get() & 0xFF, pos + window.position());
+                }
+            }
+        }
+
+        // Last line without a newline
+        if (!lineStart || lineHasContent) endLine(fileBytes);
+
+        if (rows == 0) throw new IOException("no maze rows in " + file);
+
+        maze.setRowCount(rows);
+        loadNanos = System.nanoTime() - start;
+    }
+
+    private void readByte(int b, long bytesRead) {
+        if (inComment) {
+            if (b == '\n') {
+                inComment = false;
+                lineStart = true;
+                lineBegin = bytesRead;
+            }
+            return;
+        }
+
+        if (b == '\n') {
+            endLine(bytesRead);
+            return;
+        }
+        if (b == '\r') return;
+
+        // Continuation byte of a multi-byte character
+        if (utf8Remaining > 0) {
+            utf8Bytes = (utf8Bytes << 8) | b;
+            utf8Remaining--;
+            if (utf8Remaining == 0) {
+                cell(utf8Bytes == WALL_GLYPH_UTF8 ? WALL : FLOOR, true);
+            }
+            return;
+        }
+
+        // Skip comment lines
+        if (lineStart && b == '#') {
+            inComment = true;
+            lineStart = false;
+            return;
+        }
+        lineStart = false;
+
+        // Lead byte of a multi-byte character
+        if (b >= 0x80) {
+            utf8Remaining = b >= 0xF0 ? 3 : b >= 0xE0 ? 2 : 1;
+            utf8Bytes = b;
+            return;
+        }
+
+        switch (b) {
+            case 'X', 'x' -> cell(EXIT, true);
+            case 'P', 'p' -> cell(PLAYER, true);
+            case 'Z', 'z' -> cell(ZOMBIE, true);
+            default -> cell(FLOOR, b > ' ');  // whitespace alone does not make a row
+        }
+    }
+
+    private void cell(int type, boolean content) {
+        if (content) lineHasContent = true;
+
+        if (cols < 0) {
+            if (col == firstLine.length) firstLine = Arrays.copyOf(firstLine, col * 2);
+            firstLine[col++] = (byte) type;
+            return;
+        }
+
+        if (col < cols) store(rows, col, type);
+        col++;
+    }
+
+    private void store(int row, int c, int type) {
+        switch (type) {
+            case WALL -> { }  // bits start out as wall
+            case EXIT -> {
+                maze.setWalkable(row, c);
+                maze.addExit(row, c);
+            }
+            case PLAYER -> {
+                maze.setWalkable(row, c);
+                maze.setPlayerSpawn(row, c);
+            }
+            case ZOMBIE -> {
+                maze.setWalkable(row, c);
+                maze.addZombieSpawn(row, c);
+            }
+            default -> maze.setWalkable(row, c);
+        }
+    }
+
+    private void endLine(long bytesRead) {
+        if (!lineHasContent) {
+            // Blank line, undo any floor written for it
+            if (cols >= 0 && col > 0) maze.clearRow(rows);
+        } else if (cols < 0) {
+            startMaze(bytesRead);
+        } else {
+            // Short rows are padded with floor
+            for (int c = col; c < cols; c++) maze.setWalkable(rows, c);
+            rows++;
+            maze.ensureRowCapacity(rows + 1);
+        }
+
+        col = 0;
+        lineHasContent = false;
+        lineStart = true;
+        lineBegin = bytesRead;
+        utf8Remaining = 0;
+    }
+
+    //the first row fixes the width, so the maze storage can be made now
+    private void startMaze(long bytesRead) {
+        cols = col;
+
+        // Guess the row count from the file size, the storage grows if the guess is low
+        long bytesPerRow = Math.max(1, bytesRead - lineBegin);
+        long bytesLeft = fileBytes - bytesRead;
+        int expectedRows = (int) Math.min(Integer.MAX_VALUE / 2, 1 + bytesLeft / bytesPerRow);
+
+        maze.beginRows(cols, expectedRows);
+        maze.ensureRowCapacity(1);
+        for (int c = 0; c < cols; c++) store(0, c, firstLine[c]);
+
+        firstLine = null;
+        rows = 1;
+        maze.ensureRowCapacity(rows + 1);
+    }
+}
@@ -3,23 +3,48 @@ package model;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.function.IntConsumer;
 
 /*
- * Manages the reading of the text file
+ * Holds the maze read from a level file (see MappedLevelLoader)
  * Determines whether areas are walkable, and where the exit occurs
+ *
+ * Walkable tiles are kept as one bit each in a long[], with a ring of wall
+ * around the maze so probes one tile outside the edge need no bounds check
+ * Exits are rare, so they are kept in a set instead
+ *
+ * Tiles can be changed while playing with setTile(), which bumps getVersion() so caches
+ * built from the maze (images, flow fields, paths) know to update
  */
 public class Maze {
 
     // Tile size constant
     public static final int TILE_SIZE = 32;
 
-    private Tile[][] tiles;
+    // Shared tiles used for drawing, one per type
+    private static final Tile WALL_TILE = new Tile(TileType.WALL);
+    private static final Tile FLOOR_TILE = new Tile(TileType.FLOOR);
+    private static final Tile EXIT_TILE = new Tile(TileType.EXIT);
+
     private int rows;
     private int cols;
 
+    // Row length including the wall border on both sides
+    private int stride;
+
+    // Bit set: 1 = walkable, indexed by padded (row + 1) * stride + (col + 1)
+    private long[] walkable;
+
+    // True when the bits are shared with a copy, they are cloned before any change
+    private boolean sharedWords = false;
+
+    // Padded indexes of the exit tiles
+    private final HashSet<Integer> exits = new HashSet<>();
+
     // Determines spawn points based on text file
     private Point playerSpawn = null;
     private final ArrayList<Point> zombieSpawns = new ArrayList<>();
@@ -27,71 +52,180 @@ public class Maze {
     public Point getPlayerSpawn() { return playerSpawn; }
     public ArrayList<Point> getZombieSpawns() { return zombieSpawns; }
 
+    // Speed of the last file load, for the loading stats
+    private double loadRowsPerSecond = 0;
+
+    // Edits made with setTile(), the last CHANGE_LOG_SIZE tiles are remembered
+    public static final int CHANGE_LOG_SIZE = 64;
+    private long version = 0;
+    private final int[] changeLog = new int[CHANGE_LOG_SIZE];
+
     public Maze(File inputFile) {
         try {
-            Scanner fileReader = new Scanner(inputFile);
-            ArrayList<char[]> fileContents = new ArrayList<>();
+            // Use the compiled level when it is there and not older than the text
+            File compiled = BinaryLevel.compiledFileFor(inputFile);
+            if (compiled != null) {
+                try {
+                    BinaryLevel.readInto(this, compiled);
+                    return;
+                } catch (IOException e) {
+                    System.err.println("Compiled level unusable, reading text: " + e.getMessage());
+                }
+            }
 
-            while (fileReader.hasNext()) {
-                String line = fileReader.nextLine();
+            MappedLevelLoader loader = new MappedLevelLoader(inputFile);
+            loader.loadInto(this);
+            loadRowsPerSecond = loader.getRowsPerSecond();
+
+        } catch (IOException e) {
+            System.err.println("Level load failed, using fallback. (" + e.getMessage() + ")");
+            loadFallback();
+        }
+    }
+
+    //all-wall maze of the given size, carved out by MazeGenerator
+    Maze(int rows, int cols) {
+        beginRows(cols, rows);
+        ensureRowCapacity(rows);
+        setRowCount(rows);
+    }
+
+    //copy that shares the wall bits with the original (see copy())
+    private Maze(Maze other) {
+        rows = other.rows;
+        cols = other.cols;
+        stride = other.stride;
+        walkable = other.walkable;
+        exits.addAll(other.exits);
+        loadRowsPerSecond = other.loadRowsPerSecond;
+
+        if (other.playerSpawn != null) playerSpawn = new Point(other.playerSpawn);
+        for (Point p : other.zombieSpawns) zombieSpawns.add(new Point(p));
+
+        sharedWords = true;
+        other.sharedWords = true;
+    }
 
-                // Skip comment lines
-                if (line.startsWith("#")) continue;
+    /**
+     * Makes a separate Maze for another game without copying the wall bits,
+     * which is what makes LevelCache hand-outs cheap.
+     */
+    public Maze copy() {
+        return new Maze(this);
+    }
 
-                // Skip blank lines
-                if (line.trim().isEmpty()) continue;
+    //builds the backup maze from MazeLayout
+    private void loadFallback() {
+        int size = MazeLayout.MAZE.length;
+        beginRows(MazeLayout.MAZE[0].length, size);
+        ensureRowCapacity(size);
+        setRowCount(size);
 
-                fileContents.add(line.toCharArray());
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                TileType type = MazeLayout.MAZE[r][c];
+                if (type.isWalkable()) setWalkable(r, c);
+                if (type.isExit()) addExit(r, c);
             }
-            fileReader.close();
+        }
+    }
 
-            rows = fileContents.size();
-            cols = fileContents.get(0).length;
-            tiles = new Tile[rows][cols];
+    public double getLoadRowsPerSecond() { return loadRowsPerSecond; }
 
-            for (int r = 0; r < rows; r++) {
-                for (int c = 0; c < cols; c++) {
+    // -------------------------------
+    // Storage, used while loading
+    // -------------------------------
 
-                    char ch = fileContents.get(r)[c];
+    //starts an empty all-wall maze, rows are added with ensureRowCapacity/setRowCount
+    void beginRows(int cols, int expectedRows) {
+        this.rows = 0;
+        this.cols = cols;
+        this.stride = cols + 2;
+        this.walkable = new long[wordsFor(Math.max(expectedRows, 1))];
+        sharedWords = false;
+        exits.clear();
+        playerSpawn = null;
+        zombieSpawns.clear();
+    }
 
-                    switch (ch) {
+    private int wordsFor(int rowCount) {
+        long bits = (long) (rowCount + 2) * stride;
+        return (int) ((bits + 63) >>> 6);
+    }
 
-                        case '█' -> tiles[r][c] = new Tile(TileType.WALL);
-                        case ' ' -> tiles[r][c] = new Tile(TileType.FLOOR);
+    //makes room for rows 0..rowCount-1 plus the bottom border
+    void ensureRowCapacity(int rowCount) {
+        int needed = wordsFor(rowCount);
+        if (needed <= walkable.length) return;
 
-                        // EXIT (uppercase or lowercase)
-                        case 'X', 'x' -> tiles[r][c] = new Tile(TileType.EXIT);
+        int grown = (int) Math.min(Integer.MAX_VALUE - 8, walkable.length + (long) walkable.length / 2);
+        walkable = Arrays.copyOf(walkable, Math.max(needed, grown));
+    }
 
-                        // PLAYER SPAWN (uppercase or lowercase)
-                        case 'P', 'p' -> {
-                            playerSpawn = new Point(r, c);
-                            tiles[r][c] = new Tile(TileType.FLOOR);
-                        }
+    void setRowCount(int rows) {
+        this.rows = rows;
+    }
 
-                        // ZOMBIE SPAWN (uppercase or lowercase)
-                        case 'Z', 'z' -> {
-                            zombieSpawns.add(new Point(r, c));
-                            tiles[r][c] = new Tile(TileType.FLOOR);
-                        }
+    //turns a row back into wall, used when a loaded line turns out to be blank
+    void clearRow(int row) {
+        unshareWords();
+        for (int c = 0; c < cols; c++) {
+            int i = index(row, c);
+            walkable[i >>> 6] &= ~(1L << i);
+        }
+    }
 
-                        default -> tiles[r][c] = new Tile(TileType.FLOOR);
-                    }
-                }
-            }
+    private int index(int row, int col) {
+        return (row + 1) * stride + (col + 1);
+    }
 
-        } catch (FileNotFoundException e) {
-            System.err.println("Level load failed, using fallback.");
+    private void unshareWords() {
+        if (sharedWords) {
+            walkable = walkable.clone();
+            sharedWords = false;
+        }
+    }
 
-            rows = 15;
-            cols = 15;
-            tiles = new Tile[rows][cols];
+    void setWalkable(int row, int col) {
+        unshareWords();
+        int i = index(row, col);
+        walkable[i >>> 6] |= 1L << i;
+    }
 
-            for (int r = 0; r < rows; r++) {
-                for (int c = 0; c < cols; c++) {
-                    tiles[r][c] = new Tile(MazeLayout.MAZE[r][c]);
-                }
-            }
+    void addExit(int row, int col) {
+        exits.add(index(row, col));
+    }
+
+    //the walkable bits of rows 0..rows-1 plus both borders, for BinaryLevel
+    long[] getWalkableWords() {
+        return Arrays.copyOf(walkable, wordsFor(rows));
+    }
+
+    //takes over the bits as they are, setRowCount must be called first
+    void setWalkableWords(long[] words) {
+        if (words.length < wordsFor(rows)) {
+            throw new IllegalArgumentException("walkable bits too short for " + rows + " rows");
         }
+        walkable = words;
+        sharedWords = false;
+    }
+
+    //exit positions as {row, col} pairs, for BinaryLevel
+    int[][] getExitTiles() {
+        int[][] tiles = new int[exits.size()][];
+        int n = 0;
+        for (int i : exits) {
+            tiles[n++] = new int[] { i / stride - 1, i % stride - 1 };
+        }
+        return tiles;
+    }
+
+    void setPlayerSpawn(int row, int col) {
+        playerSpawn = new Point(row, col);
+    }
+
+    void addZombieSpawn(int row, int col) {
+        zombieSpawns.add(new Point(row, col));
     }
 
     public int getRows() { return rows; }
@@ -100,22 +234,101 @@ public class Maze {
     //makes the floors walkable
     public boolean isWalkable(int row, int col) {
         if (row < 0 || row >= rows || col < 0 || col >= cols) return false;
-        return tiles[row][col].isWalkable();
+        return isWalkableUnchecked(row, col);
+    }
+
+    /**
+     * Same as isWalkable, without the bounds check.
+     * Only valid from one tile outside the maze (row -1..rows, col -1..cols),
+     * which is all that entities standing inside the maze ever probe.
+     */
+    boolean isWalkableUnchecked(int row, int col) {
+        int i = (row + 1) * stride + (col + 1);
+        return (walkable[i >>> 6] & (1L << i)) != 0;
+    }
+
+    // -------------------------------
+    // Editing
+    // -------------------------------
+
+    //goes up by one with every setTile()
+    public long getVersion() { return version; }
+
+    /**
+     * Turns one tile into a wall, floor or exit while the maze is in use.
+     */
+    public void setTile(int row, int col, TileType type) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IllegalArgumentException("tile " + row + "," + col + " is outside the maze");
+        }
+
+        unshareWords();
+        int i = index(row, col);
+        if (type.isWalkable()) {
+            walkable[i >>> 6] |= 1L << i;
+        } else {
+            walkable[i >>> 6] &= ~(1L << i);
+        }
+        if (type.isExit()) {
+            exits.add(i);
+        } else {
+            exits.remove(i);
+        }
+
+        changeLog[(int) (version % CHANGE_LOG_SIZE)] = row * cols + col;
+        version++;
+    }
+
+    /**
+     * Hands the tiles edited after the given version to tiles, as row * cols + col
+     * (a tile edited twice comes twice).
+     *
+     * @return false when too many edits were made since then to remember them all
+     */
+    boolean changesSince(long since, IntConsumer tiles) {
+        if (version - since > CHANGE_LOG_SIZE || since > version) return false;
+        for (long v = since; v < version; v++) {
+            tiles.accept(changeLog[(int) (v % CHANGE_LOG_SIZE)]);
+        }
+        return true;
     }
 
     //spawns exit
     public boolean isExit(int row, int col) {
         if (row < 0 || row >= rows || col < 0 || col >= cols) return false;
-        return tiles[row][col].isExit();
+        return exits.contains(index(row, col));
+    }
+
+    public TileType getTileType(int row, int col) {
+        if (!isWalkable(row, col)) return TileType.WALL;
+        return isExit(row, col) ? TileType.EXIT : TileType.FLOOR;
     }
 
     //draws the tiles for the maze
     public void draw(Graphics2D g2) {
+        draw(g2, 0, 0, rows - 1, cols - 1);
+    }
+
+    //draws only the tiles in the given rows and columns (inclusive, clamped to the maze)
+    public void draw(Graphics2D g2, int minRow, int minCol, int maxRow, int maxCol) {
         int tileSize = TILE_SIZE;
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                tiles[r][c].draw(g2, r, c, tileSize);
+        int r0 = Math.max(0, minRow);
+        int c0 = Math.max(0, minCol);
+        int r1 = Math.min(rows - 1, maxRow);
+        int c1 = Math.min(cols - 1, maxCol);
+
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                tileFor(getTileType(r, c)).draw(g2, r, c, tileSize);
             }
         }
     }
+
+    private static Tile tileFor(TileType type) {
+        return switch (type) {
+            case WALL -> WALL_TILE;
+            case EXIT -> EXIT_TILE;
+            default -> FLOOR_TILE;
+        };
+    }
 }
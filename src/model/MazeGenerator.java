@@ -0,0 +1,86 @@
+package model;
+
+import java.util.Random;
+
+/*
+ * Makes random mazes of any size with a recursive backtracker, for stress tests and scenarios
+ * Rooms sit on odd rows and columns with walls between them, so the outer ring is always wall
+ * The walk keeps its own stack instead of recursing, so big mazes do not overflow the call stack
+ *
+ * The same seed and size always give the same maze
+ * The player starts in the top-left room and the exit is in the bottom-right one
+ */
+public class MazeGenerator {
+
+    // Row and column steps to the four neighbouring rooms
+    private static final int[] DR = { -2, 2, 0, 0 };
+    private static final int[] DC = { 0, 0, -2, 2 };
+
+    // Prevent instantiation
+    private MazeGenerator() {}
+
+    /**
+     * Generates a maze. Even sizes are rounded down to odd ones so the border stays wall.
+     *
+     * @param rows tiles down, at least 3
+     * @param cols tiles across, at least 3
+     */
+    public static Maze generate(int rows, int cols, long seed) {
+        if (rows < 3 || cols < 3) {
+            throw new IllegalArgumentException("maze must be at least 3x3, got " + rows + "x" + cols);
+        }
+        if (rows % 2 == 0) rows--;
+        if (cols % 2 == 0) cols--;
+
+        Maze maze = new Maze(rows, cols);
+        Random random = new Random(seed);
+
+        int roomRows = rows / 2;
+        int roomCols = cols / 2;
+        boolean[] visited = new boolean[roomRows * roomCols];
+
+        // Stack of room indexes on the current path
+        int[] stack = new int[roomRows * roomCols];
+        int top = 0;
+
+        stack[top++] = 0;
+        visited[0] = true;
+        maze.setWalkable(1, 1);
+
+        int[] options = new int[4];
+        while (top > 0) {
+            int room = stack[top - 1];
+            int row = room / roomCols * 2 + 1;
+            int col = room % roomCols * 2 + 1;
+
+            // Unvisited neighbours of this room
+            int n = 0;
+            for (int d = 0; d < 4; d++) {
+                int r = row + DR[d];
+                int c = col + DC[d];
+                if (r < 1 || r >= rows - 1 || c < 1 || c >= cols - 1) continue;
+                if (!visited[r / 2 * roomCols + c / 2]) options[n++] = d;
+            }
+
+            if (n == 0) {
+                top--;
+                continue;
+            }
+
+            // Knock down the wall to a random one and continue from there
+            int d = options[random.nextInt(n)];
+            int r = row + DR[d];
+            int c = col + DC[d];
+            maze.setWalkable(row + DR[d] / 2, col + DC[d] / 2);
+            maze.setWalkable(r, c);
+
+            int next = r / 2 * roomCols + c / 2;
+            visited[next] = true;
+            stack[top++] = next;
+        }
+
+        maze.setPlayerSpawn(1, 1);
+        maze.addExit(rows - 2, cols - 2);
+        return maze;
+    }
+}
@@ -0,0 +1,153 @@
+package model;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/*
+ * The maze tiles drawn once into an image, so a frame only has to blit it
+ * Uses a VolatileImage (video memory) when it can, and a BufferedImage otherwise
+ *
+ * The image is rebuilt only when the maze changes (another maze, or tiles edited with
+ * Maze.setTile) or the VolatileImage loses its contents
+ * Mazes bigger than MAX_SIZE pixels are drawn tile by tile instead, only the visible ones
+ */
+public class MazeLayer {
+
+    // Largest image we are willing to keep, in pixels per side
+    public static final int MAX_SIZE = 4096;
+
+    private Maze maze;
+    private long version;
+    private boolean dirty = true;
+
+    private VolatileImage volatileImage;
+    private BufferedImage bufferedImage;
+
+    // Times the tiles were drawn into the image, for checking the cache works
+    private int rebuilds = 0;
+
+    public int getRebuilds() { return rebuilds; }
+
+    //switches to a new (or edited) maze, the image is made again on the next draw
+    public void setMaze(Maze maze) {
+        if (maze != this.maze || maze.getVersion() != version) {
+            this.maze = maze;
+            version = maze.getVersion();
+            dirty = true;
+        }
+    }
+
+    //forces the image to be made again, e.g. after the tiles were edited
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Draws the maze at the origin of g2, building or restoring the cached image first if needed.
+     */
+    public void draw(Graphics2D g2, Maze maze) {
+        draw(g2, maze, 0, 0, Maze.TILE_SIZE * maze.getCols(), Maze.TILE_SIZE * maze.getRows());
+    }
+
+    /**
+     * Draws the part of the maze inside the given rectangle (in maze pixels).
+     */
+    public void draw(Graphics2D g2, Maze maze, int x, int y, int w, int h) {
+        setMaze(maze);
+
+        int width = Maze.TILE_SIZE * maze.getCols();
+        int height = Maze.TILE_SIZE * maze.getRows();
+
+        // Clip the rectangle to the maze
+        int x0 = Math.max(0, x);
+        int y0 = Math.max(0, y);
+        int x1 = Math.min(width, x + w);
+        int y1 = Math.min(height, y + h);
+        if (x0 >= x1 || y0 >= y1) return;
+
+        if (width > MAX_SIZE || height > MAX_SIZE) {
+            flush();
+            drawTiles(g2, maze, x0, y0, x1, y1);
+            return;
+        }
+
+        Image image = prepare(g2.getDeviceConfiguration(), width, height);
+        g2.drawImage(image, x0, y0, x1, y1, x0, y0, x1, y1, null);
+
+        // Contents lost while drawing, draw this frame by hand and rebuild next time
+        if (volatileImage != null && volatileImage.contentsLost()) {
+            dirty = true;
+            drawTiles(g2, maze, x0, y0, x1, y1);
+        }
+    }
+
+    private static void drawTiles(Graphics2D g2, Maze maze, int x0, int y0, int x1, int y1) {
+        int t = Maze.TILE_SIZE;
+        maze.draw(g2, y0 / t, x0 / t, (y1 - 1) / t, (x1 - 1) / t);
+    }
+
+    private Image prepare(GraphicsConfiguration gc, int width, int height) {
+        if (gc != null && bufferedImage == null) {
+            if (volatileImage == null || volatileImage.getWidth() != width
+                    || volatileImage.getHeight() != height) {
+                flush();
+                volatileImage = createVolatile(gc, width, height);
+                dirty = true;
+            }
+
+            if (volatileImage != null) {
+                int status = volatileImage.validate(gc);
+                if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    volatileImage.flush();
+                    volatileImage = createVolatile(gc, width, height);
+                    dirty = true;
+                } else if (status == VolatileImage.IMAGE_RESTORED) {
+                    dirty = true;
+                }
+            }
+
+            if (volatileImage != null) {
+                if (dirty) paint(volatileImage.createGraphics());
+                return volatileImage;
+            }
+        }
+
+        // No accelerated surface available, keep a plain image in memory
+        if (bufferedImage == null || bufferedImage.getWidth() != width
+                || bufferedImage.getHeight() != height) {
+            bufferedImage = gc != null
+                    ? gc.createCompatibleImage(width, height, Transparency.OPAQUE)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            dirty = true;
+        }
+        if (dirty) paint(bufferedImage.createGraphics());
+        return bufferedImage;
+    }
+
+    private static VolatileImage createVolatile(GraphicsConfiguration gc, int width, int height) {
+        try {
+            return gc.createCompatibleVolatileImage(width, height, Transparency.OPAQUE);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void paint(Graphics2D g) {
+        maze.draw(g);
+        g.dispose();
+        dirty = false;
+        rebuilds++;
+    }
+
+    //lets go of the images, e.g. when the maze got too big to cache
+    public void flush() {
+        if (volatileImage != null) volatileImage.flush();
+        volatileImage = null;
+        bufferedImage = null;
+        dirty = true;
+    }
+}
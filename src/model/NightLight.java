@@ -0,0 +1,111 @@
+package model;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RadialGradientPaint;
+import java.awt.image.BufferedImage;
+
+/*
+ * Darkness with a circle of light around the player, for night mode
+ *
+ * The light is a small pre-built texture (darkness with a see-through circle)
+ * that is only made again when the radius or softness changes
+ * Everything outside the texture is plain darkness, drawn as flat rectangles
+ */
+public class NightLight {
+
+    public static final int DEFAULT_RADIUS = 100;
+    public static final int DARKNESS_ALPHA = 245;
+
+    private static final Color DARKNESS = new Color(0, 0, 0, DARKNESS_ALPHA);
+
+    private int radius = DEFAULT_RADIUS;
+
+    // 0 = hard edge, 1 = fades all the way from the center
+    private float softness = 0f;
+
+    private BufferedImage texture;
+
+    public int getRadius() { return radius; }
+    public float getSoftness() { return softness; }
+
+    public void setRadius(int radius) {
+        if (radius != this.radius) {
+            this.radius = radius;
+            texture = null;
+        }
+    }
+
+    public void setSoftness(float softness) {
+        softness = Math.max(0f, Math.min(1f, softness));
+        if (softness != this.softness) {
+            this.softness = softness;
+            texture = null;
+        }
+    }
+
+    /**
+     * Covers the screen in darkness except around (cx, cy), in screen pixels.
+     */
+    public void draw(Graphics2D g2, int cx, int cy, int width, int height) {
+        drawLight(g2, cx, cy);
+
+        int size = radius * 2;
+        int left = cx - radius;
+        int top = cy - radius;
+        int right = left + size;
+        int bottom = top + size;
+
+        // Flat darkness around the texture: full-width bands above and below, then the sides
+        g2.setColor(DARKNESS);
+        fill(g2, 0, 0, width, top);
+        fill(g2, 0, bottom, width, height - bottom);
+        fill(g2, 0, top, left, size);
+        fill(g2, right, top, width - right, size);
+    }
+
+    /**
+     * Draws only the light square around (cx, cy), for when nothing was drawn outside it.
+     */
+    public void drawLight(Graphics2D g2, int cx, int cy) {
+        if (texture == null) texture = buildTexture();
+        g2.drawImage(texture, cx - radius, cy - radius, null);
+    }
+
+    //fillRect with the rectangle clipped to the screen first
+    private static void fill(Graphics2D g2, int x, int y, int w, int h) {
+        if (x < 0) { w += x; x = 0; }
+        if (y < 0) { h += y; y = 0; }
+        if (w > 0 && h > 0) g2.fillRect(x, y, w, h);
+    }
+
+    private BufferedImage buildTexture() {
+        int size = radius * 2;
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = image.createGraphics();
+
+        g.setColor(DARKNESS);
+        g.fillRect(0, 0, size, size);
+
+        if (softness <= 0f) {
+            // Same hard-edged hole the old full-screen mask punched
+            g.setComposite(AlphaComposite.DstOut);
+            g.fillOval(0, 0, size, size);
+        } else {
+            float inner = 1f - softness;
+            float[] stops = inner > 0f ? new float[] { 0f, inner, 1f } : new float[] { 0f, 1f };
+            Color clear = new Color(0, 0, 0, 0);
+            Color[] colors = inner > 0f
+                    ? new Color[] { clear, clear, DARKNESS }
+                    : new Color[] { clear, DARKNESS };
+
+            g.setComposite(AlphaComposite.Src);
+            g.setPaint(new RadialGradientPaint(radius, radius, radius, stops, colors));
+            g.fillRect(0, 0, size, size);
+        }
+
+        g.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,618 @@
+package model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Tile-to-tile paths on big mazes by hierarchical pathfinding (HPA*)
+ * The maze is cut into square clusters. Where two clusters touch, every run of open tiles
+ * along the border gets one or two entrances, and the distances between the entrances of
+ * a cluster are worked out up front. A query searches that small graph of entrances with A*
+ * and fills in the steps inside each cluster afterwards
+ *
+ * A route (just the entrances) is much cheaper than the full path on long trips, so callers
+ * that walk the path can take the route and fill in one segment at a time as they go
+ *
+ * Recent routes and paths are cached. Maze.setTile edits rebuild only the clusters around the edited
+ * tiles, and empty the caches
+ * Meant to be used from one thread (the simulation's)
+ */
+public class PathfindingService {
+
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    // Runs of open border tiles longer than this get an entrance at each end, not one in the middle
+    private static final int LONG_ENTRANCE = 6;
+
+    // Parent of the entrances reached straight from the start tile
+    private static final int START = -2;
+
+    // Cached answer for "no path", and the entrances of a border with none
+    private static final int[] NO_PATH = new int[0];
+    private static final int[] EMPTY = new int[0];
+
+    private static final int[] ROW_STEP = { -1, 1, 0, 0 };
+    private static final int[] COL_STEP = { 0, 0, -1, 1 };
+
+    /*
+     * The entrance tiles of one cluster and the distances between them inside it
+     */
+    private static class Cluster {
+        int[] nodes = new int[0];
+        int[] distances = new int[0];      // nodes.length squared, -1 = no way inside the cluster
+        int[][] crossings = new int[0][];  // tiles across the border from each node
+    }
+
+    private final Maze maze;
+    private final int rows;
+    private final int cols;
+    private final int tiles;
+    private final int clusterSize;
+    private final int clusterRows;
+    private final int clusterCols;
+    private final Cluster[] clusters;
+
+    // Entrances on the border to the right of / below each cluster,
+    // as {tile inside, tile across} pairs one after the other
+    private final int[][] rightBorders;
+    private final int[][] bottomBorders;
+
+    // Slot of each entrance tile in its cluster's node list, -1 for other tiles
+    private final int[] nodeSlot;
+
+    // A* over entrance tiles, plus one slot (index tiles) for the goal;
+    // entries are valid only when stamped with the current search number
+    private final int goalNode;
+    private final int[] cost;
+    private final int[] parent;
+    private final int[] stamp;
+    private int search = 0;
+    private int goalRow;
+    private int goalCol;
+
+    // Open list: keys are f << 32 | h, so ties on f go to the entry nearer the goal,
+    // which keeps A* from fanning out across open ground
+    private long[] heap = new long[64];
+    private int[] heapNodes = new int[64];
+    private int heapSize = 0;
+    private int[] goalCosts = new int[16];
+
+    // Breadth-first search inside one cluster, indexed by position in the cluster
+    private final int[] localDist;
+    private final int[] localParent;
+    private final int[] localStamp;
+    private final int[] localQueue;
+    private int localSearch = 0;
+    private int localRow0;
+    private int localCol0;
+    private int localRow1;
+    private int localCol1;
+
+    // Path being put together
+    private int[] pathBuffer = new int[64];
+    private int pathLength = 0;
+
+    private final Map<Long, int[]> routes;
+    private final Map<Long, int[]> paths;
+    private long version;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long clusterBuilds = 0;
+
+    public PathfindingService(Maze maze) {
+        this(maze, DEFAULT_CLUSTER_SIZE, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param clusterSize side of a cluster in tiles
+     * @param cacheSize   routes and paths kept, least recently used ones are dropped first (0 = no cache)
+     */
+    public PathfindingService(Maze maze, int clusterSize, int cacheSize) {
+        this.maze = maze;
+        this.rows = maze.getRows();
+        this.cols = maze.getCols();
+        this.tiles = rows * cols;
+        this.clusterSize = clusterSize;
+        this.clusterRows = (rows + clusterSize - 1) / clusterSize;
+        this.clusterCols = (cols + clusterSize - 1) / clusterSize;
+
+        this.clusters = new Cluster[clusterRows * clusterCols];
+        for (int k = 0; k < clusters.length; k++) clusters[k] = new Cluster();
+        this.rightBorders = new int[clusters.length][];
+        this.bottomBorders = new int[clusters.length][];
+
+        this.nodeSlot = new int[tiles];
+        Arrays.fill(nodeSlot, -1);
+
+        this.goalNode = tiles;
+        this.cost = new int[tiles + 1];
+        this.parent = new int[tiles + 1];
+        this.stamp = new int[tiles + 1];
+
+        int area = clusterSize * clusterSize;
+        this.localDist = new int[area];
+        this.localParent = new int[area];
+        this.localStamp = new int[area];
+        this.localQueue = new int[area];
+
+        this.routes = lruCache(cacheSize);
+        this.paths = lruCache(cacheSize);
+
+        buildAll();
+    }
+
+    private static Map<Long, int[]> lruCache(int size) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    public Maze getMaze() { return maze; }
+
+    public long getCacheHits() { return hits; }
+    public long getCacheMisses() { return misses; }
+
+    //clusters (re)built so far, for checking edits stay local
+    public long getClusterBuilds() { return clusterBuilds; }
+
+    //entrance tiles in the abstract graph
+    public int getNodeCount() {
+        int n = 0;
+        for (Cluster c : clusters) n += c.nodes.length;
+        return n;
+    }
+
+    /**
+     * Finds the entrances a shortest (or close to shortest) path goes through. Tiles are given
+     * back as row * cols + col, start first and goal last. Each tile is in the same cluster as
+     * the one before it or just across a border from it, see segment(). The array may be
+     * shared with the cache, so it must not be changed.
+     *
+     * @return the route, or null when one of the tiles is a wall or there is no way through
+     */
+    public int[] findRoute(int fromRow, int fromCol, int toRow, int toCol) {
+        refresh();
+        if (!maze.isWalkable(fromRow, fromCol) || !maze.isWalkable(toRow, toCol)) return null;
+
+        int start = fromRow * cols + fromCol;
+        int goal = toRow * cols + toCol;
+        if (start == goal) return new int[] { start };
+
+        Long key = (long) start * tiles + goal;
+        int[] route = routes.get(key);
+        if (route != null) {
+            hits++;
+        } else {
+            misses++;
+            route = search(start, goal);
+            routes.put(key, route);
+        }
+        return route == NO_PATH ? null : route;
+    }
+
+    /**
+     * Same as findRoute, with every step filled in. Can be long on big mazes.
+     *
+     * @return the path, start and goal included, or null when there is none
+     */
+    public int[] findPath(int fromRow, int fromCol, int toRow, int toCol) {
+        int[] route = findRoute(fromRow, fromCol, toRow, toCol);
+        if (route == null || route.length == 1) return route;
+
+        Long key = (long) route[0] * tiles + route[route.length - 1];
+        int[] path = paths.get(key);
+        if (path == null) {
+            pathLength = 0;
+            appendTile(route[0]);
+            for (int i = 1; i < route.length; i++) appendSegment(route[i - 1], route[i]);
+            path = Arrays.copyOf(pathBuffer, pathLength);
+            paths.put(key, path);
+        }
+        return path;
+    }
+
+    /**
+     * Steps from one tile of a route to the next, the first tile left out.
+     *
+     * @return the tiles, or null when the two are not in one cluster or next to each other
+     *         across a border, or there is no way between them inside the cluster
+     */
+    public int[] segment(int from, int to) {
+        refresh();
+        if (from < 0 || from >= tiles || to < 0 || to >= tiles) return null;
+
+        pathLength = 0;
+        if (!appendSegment(from, to)) return null;
+        return Arrays.copyOf(pathBuffer, pathLength);
+    }
+
+    // -------------------------------
+    // Building the graph
+    // -------------------------------
+
+    private void buildAll() {
+        for (int k = 0; k < clusters.length; k++) buildBorders(k);
+        for (int k = 0; k < clusters.length; k++) buildCluster(k);
+        version = maze.getVersion();
+    }
+
+    //catches up with Maze.setTile edits, rebuilding only what touches the edited tiles
+    private void refresh() {
+        if (maze.getVersion() == version) return;
+
+        boolean[] dirty = new boolean[clusters.length];
+        boolean logged = maze.changesSince(version, tile ->
+                dirty[clusterOf(tile)] = true);
+        routes.clear();
+        paths.clear();
+
+        if (!logged) {
+            buildAll();
+            return;
+        }
+
+        // Borders on all four sides of an edited cluster may have new or lost entrances
+        boolean[] rebuild = new boolean[clusters.length];
+        for (int k = 0; k < clusters.length; k++) {
+            if (!dirty[k]) continue;
+            int cr = k / clusterCols;
+            int cc = k % clusterCols;
+
+            buildBorders(k);
+            rebuild[k] = true;
+            if (cc > 0) {
+                buildBorders(k - 1);
+                rebuild[k - 1] = true;
+            }
+            if (cr > 0) {
+                buildBorders(k - clusterCols);
+                rebuild[k - clusterCols] = true;
+            }
+            if (cc + 1 < clusterCols) rebuild[k + 1] = true;
+            if (cr + 1 < clusterRows) rebuild[k + clusterCols] = true;
+        }
+        for (int k = 0; k < clusters.length; k++) {
+            if (rebuild[k]) buildCluster(k);
+        }
+        version = maze.getVersion();
+    }
+
+    //entrances on the right and bottom borders of cluster k
+    private void buildBorders(int k) {
+        int cr = k / clusterCols;
+        int cc = k % clusterCols;
+        int r0 = cr * clusterSize;
+        int c0 = cc * clusterSize;
+        int r1 = Math.min(rows, r0 + clusterSize);
+        int c1 = Math.min(cols, c0 + clusterSize);
+
+        rightBorders[k] = cc + 1 < clusterCols ? borderEntrances(r0, r1, c1 - 1, true) : EMPTY;
+        bottomBorders[k] = cr + 1 < clusterRows ? borderEntrances(c0, c1, r1 - 1, false) : EMPTY;
+    }
+
+    /*
+     * Walks a border from `from` to `to` (rows of a vertical border, columns of a horizontal
+     * one) at the given line, the last column or row inside the cluster
+     */
+    private int[] borderEntrances(int from, int to, int line, boolean vertical) {
+        int[] pairs = new int[8];
+        int n = 0;
+
+        int runStart = -1;
+        for (int i = from; i <= to; i++) {
+            boolean open = i < to && (vertical
+                    ? maze.isWalkable(i, line) && maze.isWalkable(i, line + 1)
+                    : maze.isWalkable(line, i) && maze.isWalkable(line + 1, i));
+
+            if (open && runStart < 0) runStart = i;
+            if (open || runStart < 0) continue;
+
+            // A run just ended at i - 1
+            int runEnd = i - 1;
+            int[] at = runEnd - runStart + 1 > LONG_ENTRANCE
+                    ? new int[] { runStart, runEnd }
+                    : new int[] { (runStart + runEnd) / 2 };
+            for (int p : at) {
+                if (n + 2 > pairs.length) pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                pairs[n++] = vertical ? p * cols + line : line * cols + p;
+                pairs[n++] = vertical ? p * cols + line + 1 : (line + 1) * cols + p;
+            }
+            runStart = -1;
+        }
+        return Arrays.copyOf(pairs, n);
+    }
+
+    //gathers the entrances of cluster k from its four borders and measures the ways between them
+    private void buildCluster(int k) {
+        int cr = k / clusterCols;
+        int cc = k % clusterCols;
+        Cluster cluster = clusters[k];
+
+        for (int tile : cluster.nodes) nodeSlot[tile] = -1;
+
+        // {tile in this cluster, tile across} pairs from each side
+        int[] own = concat(rightBorders[k], bottomBorders[k]);
+        int[] left = cc > 0 ? rightBorders[k - 1] : EMPTY;
+        int[] top = cr > 0 ? bottomBorders[k - clusterCols] : EMPTY;
+
+        int[] nodes = new int[(own.length + left.length + top.length) / 2];
+        int[][] crossings = new int[nodes.length][];
+        int n = 0;
+
+        for (int side = 0; side < 3; side++) {
+            int[] pairs = side == 0 ? own : side == 1 ? left : top;
+            // Pairs on the neighbours' borders have this cluster's tile second
+            int inside = side == 0 ? 0 : 1;
+            for (int p = 0; p < pairs.length; p += 2) {
+                int tile = pairs[p + inside];
+                int across = pairs[p + 1 - inside];
+
+                int slot = nodeSlot[tile];
+                if (slot < 0) {
+                    slot = n++;
+                    nodeSlot[tile] = slot;
+                    nodes[slot] = tile;
+                    crossings[slot] = new int[] { across };
+                } else {
+                    int[] list = Arrays.copyOf(crossings[slot], crossings[slot].length + 1);
+                    list[list.length - 1] = across;
+                    crossings[slot] = list;
+                }
+            }
+        }
+
+        cluster.nodes = Arrays.copyOf(nodes, n);
+        cluster.crossings = Arrays.copyOf(crossings, n);
+        cluster.distances = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            searchCluster(cluster.nodes[i], k);
+            for (int j = 0; j < n; j++) {
+                cluster.distances[i * n + j] = localDistance(cluster.nodes[j]);
+            }
+        }
+        clusterBuilds++;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] both = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, both, a.length, b.length);
+        return both;
+    }
+
+    private int clusterOf(int tile) {
+        int r = tile / cols;
+        int c = tile - r * cols;
+        return (r / clusterSize) * clusterCols + c / clusterSize;
+    }
+
+    // -------------------------------
+    // Searching inside one cluster
+    // -------------------------------
+
+    //breadth-first search from the tile, never leaving cluster k
+    private void searchCluster(int from, int k) {
+        localRow0 = k / clusterCols * clusterSize;
+        localCol0 = k % clusterCols * clusterSize;
+        localRow1 = Math.min(rows, localRow0 + clusterSize);
+        localCol1 = Math.min(cols, localCol0 + clusterSize);
+        localSearch++;
+
+        int start = localIndex(from);
+        localStamp[start] = localSearch;
+        localDist[start] = 0;
+        localParent[start] = -1;
+
+        int head = 0;
+        int tail = 0;
+        localQueue[tail++] = start;
+
+        while (head < tail) {
+            int t = localQueue[head++];
+            int r = localRow0 + t / clusterSize;
+            int c = localCol0 + t % clusterSize;
+
+            for (int d = 0; d < 4; d++) {
+                int nr = r + ROW_STEP[d];
+                int nc = c + COL_STEP[d];
+                if (nr < localRow0 || nr >= localRow1 || nc < localCol0 || nc >= localCol1) continue;
+                if (!maze.isWalkableUnchecked(nr, nc)) continue;
+
+                int n = (nr - localRow0) * clusterSize + (nc - localCol0);
+                if (localStamp[n] == localSearch) continue;
+
+                localStamp[n] = localSearch;
+                localDist[n] = localDist[t] + 1;
+                localParent[n] = t;
+                localQueue[tail++] = n;
+            }
+        }
+    }
+
+    private int localIndex(int tile) {
+        int r = tile / cols;
+        int c = tile - r * cols;
+        return (r - localRow0) * clusterSize + (c - localCol0);
+    }
+
+    //distance found by the last searchCluster, -1 when it did not get there
+    private int localDistance(int tile) {
+        int i = localIndex(tile);
+        return localStamp[i] == localSearch ? localDist[i] : -1;
+    }
+
+    //adds the steps of the last searchCluster from its start to the tile, start left out
+    private void appendLocalPath(int tile) {
+        int end = pathLength;
+        for (int i = localIndex(tile); localParent[i] >= 0; i = localParent[i]) {
+            appendTile((localRow0 + i / clusterSize) * cols + localCol0 + i % clusterSize);
+        }
+        // Walked backwards, turn it around
+        reversePath(end);
+    }
+
+    private void reversePath(int from) {
+        for (int a = from, b = pathLength - 1; a < b; a++, b--) {
+            int t = pathBuffer[a];
+            pathBuffer[a] = pathBuffer[b];
+            pathBuffer[b] = t;
+        }
+    }
+
+    private void appendTile(int tile) {
+        if (pathLength == pathBuffer.length) pathBuffer = Arrays.copyOf(pathBuffer, pathLength * 2);
+        pathBuffer[pathLength++] = tile;
+    }
+
+    // -------------------------------
+    // A* over the entrances
+    // -------------------------------
+
+    private int[] search(int start, int goal) {
+        int startCluster = clusterOf(start);
+        int goalCluster = clusterOf(goal);
+
+        // Both in one cluster and connected inside it: good enough, no need to look further
+        if (startCluster == goalCluster) {
+            searchCluster(start, startCluster);
+            if (localDistance(goal) >= 0) return new int[] { start, goal };
+        }
+
+        // Ways from the goal's cluster entrances to the goal
+        Cluster target = clusters[goalCluster];
+        if (goalCosts.length < target.nodes.length) goalCosts = new int[target.nodes.length * 2];
+        searchCluster(goal, goalCluster);
+        for (int i = 0; i < target.nodes.length; i++) goalCosts[i] = localDistance(target.nodes[i]);
+
+        search++;
+        heapSize = 0;
+        goalRow = goal / cols;
+        goalCol = goal - goalRow * cols;
+
+        // Ways from the start to its cluster's entrances
+        Cluster first = clusters[startCluster];
+        searchCluster(start, startCluster);
+        for (int tile : first.nodes) {
+            int d = localDistance(tile);
+            if (d >= 0) relax(tile, d, START);
+        }
+
+        boolean found = false;
+        while (heapSize > 0) {
+            long top = heap[0];
+            int u = pop();
+            int g = (int) (top >>> 32) - (int) top;
+
+            if (u == goalNode) {
+                found = true;
+                break;
+            }
+            if (g > cost[u]) continue;  // already reached more cheaply
+
+            int k = clusterOf(u);
+            Cluster cluster = clusters[k];
+            int slot = nodeSlot[u];
+            int n = cluster.nodes.length;
+
+            if (k == goalCluster && goalCosts[slot] >= 0) {
+                relax(goalNode, cost[u] + goalCosts[slot], u);
+            }
+            for (int j = 0; j < n; j++) {
+                int d = cluster.distances[slot * n + j];
+                if (d > 0) relax(cluster.nodes[j], cost[u] + d, u);
+            }
+            for (int across : cluster.crossings[slot]) {
+                relax(across, cost[u] + 1, u);
+            }
+        }
+        if (!found) return NO_PATH;
+
+        // Walk the parents back from the goal
+        pathLength = 0;
+        appendTile(goal);
+        for (int node = parent[goalNode]; node != START; node = parent[node]) {
+            if (node != pathBuffer[pathLength - 1]) appendTile(node);
+        }
+        if (pathBuffer[pathLength - 1] != start) appendTile(start);
+        reversePath(0);
+        return Arrays.copyOf(pathBuffer, pathLength);
+    }
+
+    private void relax(int node, int newCost, int from) {
+        if (stamp[node] == search && cost[node] <= newCost) return;
+        stamp[node] = search;
+        cost[node] = newCost;
+        parent[node] = from;
+        int h = heuristic(node);
+        push(((long) (newCost + h) << 32) | h, node);
+    }
+
+    private int heuristic(int tile) {
+        if (tile == goalNode) return 0;
+        int r = tile / cols;
+        return Math.abs(r - goalRow) + Math.abs(tile - r * cols - goalCol);
+    }
+
+    //adds the steps from one route tile to the next, false when they do not connect
+    private boolean appendSegment(int from, int to) {
+        if (from == to) return true;
+
+        int k = clusterOf(from);
+        if (k != clusterOf(to)) {
+            // Steps across a border
+            int r = from / cols;
+            int tr = to / cols;
+            if (Math.abs(r - tr) + Math.abs((from - r * cols) - (to - tr * cols)) != 1) return false;
+            if (!maze.isWalkable(tr, to - tr * cols)) return false;
+            appendTile(to);
+            return true;
+        }
+
+        searchCluster(from, k);
+        if (localDistance(to) < 0) return false;
+        appendLocalPath(to);
+        return true;
+    }
+
+    private void push(long key, int node) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+            heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= key) break;
+            heap[i] = heap[up];
+            heapNodes[i] = heapNodes[up];
+            i = up;
+        }
+        heap[i] = key;
+        heapNodes[i] = node;
+    }
+
+    //removes the smallest entry, giving back its node
+    private int pop() {
+        int top = heapNodes[0];
+        long last = heap[--heapSize];
+        int lastNode = heapNodes[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= last) break;
+            heap[i] = heap[child];
+            heapNodes[i] = heapNodes[child];
+            i = child;
+        }
+        heap[i] = last;
+        heapNodes[i] = lastNode;
+        return top;
+    }
+}
@@ -0,0 +1,32 @@
+package model;
+
+/*
+ * Tells a zombie which way to step next on its way somewhere
+ * FlowField heads everyone for the player's tile, RoutePathing follows a
+ * PathfindingService route to a goal of its own
+ */
+public interface PathingStrategy {
+
+    // Directions, opposite ones differ only in the lowest bit
+    int NONE = -1;
+    int UP = 0;
+    int DOWN = 1;
+    int LEFT = 2;
+    int RIGHT = 3;
+
+    /**
+     * Which neighbour of the tile is the next step.
+     *
+     * @return UP, DOWN, LEFT or RIGHT, or NONE when there is nowhere to go
+     *         (already there, or no way through)
+     */
+    int nextDirection(int row, int col);
+
+    static int rowStep(int dir) {
+        return dir == UP ? -1 : dir == DOWN ? 1 : 0;
+    }
+
+    static int colStep(int dir) {
+        return dir == LEFT ? -1 : dir == RIGHT ? 1 : 0;
+    }
+}
@@ -1,7 +1,6 @@
 package model;
 
 import java.awt.Image;
-import javax.imageio.ImageIO;
 
 public class Player extends Entity {
 
@@ -17,7 +16,6 @@ public class Player extends Entity {
     private double speed = 3.0;
 
     private final Maze maze;
-    private Image sprite;
 
     private int lives = INITIAL_LIVES;
     private int score = 0;
@@ -27,7 +25,7 @@ public class Player extends Entity {
 
     private double facingAngle = 0.0;
 
-    //Starts the player in the middle of a tile and loads sprite
+    //Starts the player in the middle of a tile, the sprite comes from SpriteCache
     public Player(int startRow, int startCol, Maze maze) {
         this.maze = maze;
 
@@ -35,16 +33,12 @@ public class Player extends Entity {
 
         this.x = startCol * Maze.TILE_SIZE + (Maze.TILE_SIZE - SIZE) / 2.0;
         this.y = startRow * Maze.TILE_SIZE + (Maze.TILE_SIZE - SIZE) / 2.0;
-
-        try {
-            sprite = ImageIO.read(Player.class.getResource(PLAYER_SPRITE));
-        } catch (Exception e) {
-            sprite = null;
-            System.err.println("Player sprite not found: " + e);
-        }
     }
 
-    public Image getSprite() { return sprite; }
+    public Image getSprite() {
+        SpriteCache.Sprite sprite = SpriteCache.getPlayer();
+        return sprite == null ? null : sprite.getImage();
+    }
 
     //for HUD
     public int getLives() { return lives; }
@@ -110,10 +104,10 @@ public class Player extends Entity {
         int topRow    = top    / tileSize;
         int bottomRow = bottom / tileSize;
 
-        return !maze.isWalkable(topRow, leftCol) ||
-               !maze.isWalkable(topRow, rightCol) ||
-               !maze.isWalkable(bottomRow, leftCol) ||
-               !maze.isWalkable(bottomRow, rightCol);
+        return !maze.isWalkableUnchecked(topRow, leftCol) ||
+               !maze.isWalkableUnchecked(topRow, rightCol) ||
+               !maze.isWalkableUnchecked(bottomRow, leftCol) ||
+               !maze.isWalkableUnchecked(bottomRow, rightCol);
     }
 
     //handles player reset
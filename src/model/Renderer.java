@@ -1,8 +1,6 @@
 package model;
 
 import java.awt.*;
-import java.awt.geom.AffineTransform;
-import java.awt.image.BufferedImage;
 import java.util.List;
 
 import ui.HUD;
@@ -13,6 +11,8 @@ import ui.OverlayRenderer;
  */
 public class Renderer {
 
+    private static final Color FLASH_COLOR = new Color(1f, 0f, 0f, 0.35f);
+
     // Freeze border state
     private long freezeStartTime = 0;
     private boolean freezeActive = false;
@@ -21,8 +21,9 @@ public class Renderer {
     private boolean doublePointsActive = false;
     private long doublePointsStartTime = 0L;
 
-    // Rules Text
+    // Rules Text, and how many times it was set so the overlay knows to draw it again
     private List<String> rulesText;
+    private int rulesVersion = 0;
 
     // Night mode status
     private boolean nightMode = false;
@@ -30,13 +31,30 @@ public class Renderer {
     // Helper classes
     private HUD hud = new HUD();
     private OverlayRenderer overlayRenderer = new OverlayRenderer();
+    private MazeLayer mazeLayer = new MazeLayer();
+    private NightLight nightLight = new NightLight();
+
+    // Set between beginWorld and endWorld
+    private final Rectangle drawArea = new Rectangle();
+    private Shape worldClip;
 
     public void setNightMode(boolean value) {
         this.nightMode = value;
     }
 
+    //0 keeps the hard-edged light circle, up to 1 fades it out from the center
+    public void setNightSoftness(float softness) {
+        nightLight.setSoftness(softness);
+    }
+
     public void setRulesText(List<String> lines) {
         this.rulesText = lines;
+        rulesVersion++;
+    }
+
+    //a new level was loaded, the cached maze image is made again on the next frame
+    public void setMaze(Maze maze) {
+        mazeLayer.setMaze(maze);
     }
 
     //Enabling powerup systems
@@ -68,109 +86,206 @@ public class Renderer {
     // ---------------------------------------------------------
     // WORLD RENDERING
     // ---------------------------------------------------------
-    public void renderWorld(Graphics2D g2, Maze maze, Player player,
-                            List<Zombie> zombies,
-                            List<Collectible> collectibles,
-                            int width, int height) {
-
-        // maze centering
-        int mazeWidth  = Maze.TILE_SIZE * maze.getCols();
-        int mazeHeight = Maze.TILE_SIZE * maze.getRows();
-
-        int offsetX = (width  - mazeWidth)  / 2;
-        int offsetY = (height - mazeHeight) / 2;
-
-        g2.translate(offsetX, offsetY);
-
-        maze.draw(g2);
+    /**
+     * Draws the part of the world the camera sees, straight from the simulation.
+     * The grids are used to find the visible collectibles and zombies, either may be
+     * null to check every one.
+     * With lightOnly set (night mode covering the world) only what lies inside the
+     * player's light square is drawn, clipped to it, and the rest stays the black
+     * background. Pass the same flag to renderNightMode afterwards.
+     */
+    public void renderWorld(Graphics2D g2, Camera camera, Maze maze, Player player,
+                            ZombieView zombies, SpatialGrid zombieGrid,
+                            List<Collectible> collectibles, SpatialGrid collectibleGrid,
+                            boolean lightOnly) {
+
+        Rectangle area = beginWorld(g2, camera, maze, player.getX(), player.getY(), lightOnly);
+        int x = area.x, y = area.y, w = area.width, h = area.height;
 
         g2.setColor(Color.YELLOW);
-        
+
         //Drawing collectibles
-        for (Collectible c : collectibles) {
-            if (!c.isCollected()) {
-                g2.fillOval((int) c.getX(), (int) c.getY(),
-                        Collectible.SIZE, Collectible.SIZE);
+        if (collectibleGrid != null) {
+            int count = collectibleGrid.query(x, y, x + w, y + h);
+            int[] ids = collectibleGrid.getResult();
+            for (int k = 0; k < count; k++) {
+                drawCollectible(g2, collectibles.get(ids[k]));
+            }
+        } else {
+            for (Collectible c : collectibles) {
+                if (inside(c.getX(), c.getY(), Collectible.SIZE, x, y, w, h)) {
+                    drawCollectible(g2, c);
+                }
             }
         }
 
         //Drawing zombies with sprite image or red circle
-        for (Zombie z : zombies) {
-            if (z.getSprite() != null) {
-                drawRotatedSprite(g2, z.getSprite(), z.getX(), z.getY(),
-                        Zombie.SIZE, Zombie.SIZE, z.getFacingAngle());
-            } else {
-                g2.setColor(Color.RED);
-                g2.fillOval((int) z.getX(), (int) z.getY(),
-                        Zombie.SIZE, Zombie.SIZE);
+        SpriteCache.Sprite zombieSprite = SpriteCache.getZombie();
+        if (zombieSprite == null) g2.setColor(Color.RED);
+        if (zombieGrid != null) {
+            int count = zombieGrid.query(x, y, x + w, y + h);
+            int[] ids = zombieGrid.getResult();
+            for (int k = 0; k < count; k++) {
+                int i = ids[k];
+                drawZombie(g2, zombieSprite, zombies.getX(i), zombies.getY(i), zombies.getFacingAngle(i));
             }
-        }
-        
-        //Drawing player with sprite image or blue circle
-        if (player.getSprite() != null) {
-            drawRotatedSprite(g2, player.getSprite(), player.getX(), player.getY(),
-                    Player.SIZE, Player.SIZE, player.getFacingAngle());
         } else {
-            g2.setColor(Color.BLUE);
-            g2.fillOval((int) player.getX(), (int) player.getY(),
-                    Player.SIZE, Player.SIZE);
+            for (int i = 0; i < zombies.size(); i++) {
+                if (inside(zombies.getX(i), zombies.getY(i), Zombie.SIZE, x, y, w, h)) {
+                    drawZombie(g2, zombieSprite, zombies.getX(i), zombies.getY(i), zombies.getFacingAngle(i));
+                }
+            }
         }
 
-        g2.translate(-offsetX, -offsetY);
+        endWorld(g2, camera, player.getX(), player.getY(), player.getFacingAngle());
     }
 
-    //rotating sprite images
-    private void drawRotatedSprite(Graphics2D g2, Image sprite,
-                                   double x, double y, int width, int height,
-                                   double angle) {
+    /**
+     * Same as above, from a snapshot, for when the simulation runs on its own thread.
+     *
+     * @param alpha how far between the snapshot's previous and current tick to draw (0..1)
+     */
+    public void renderWorld(Graphics2D g2, Camera camera, WorldSnapshot world, float alpha,
+                            boolean lightOnly) {
 
-        int cx = (int) x + width / 2;
-        int cy = (int) y + height / 2;
+        double playerX = world.getPlayerX(alpha);
+        double playerY = world.getPlayerY(alpha);
+
+        Rectangle area = beginWorld(g2, camera, world.getMaze(), playerX, playerY, lightOnly);
+        int x = area.x, y = area.y, w = area.width, h = area.height;
+
+        g2.setColor(Color.YELLOW);
+
+        //Drawing collectibles, the snapshot only holds the ones near the player
+        for (int i = 0; i < world.getCollectibleCount(); i++) {
+            double cx = world.getCollectibleX(i);
+            double cy = world.getCollectibleY(i);
+            if (inside(cx, cy, Collectible.SIZE, x, y, w, h)) {
+                g2.fillOval((int) cx, (int) cy, Collectible.SIZE, Collectible.SIZE);
+            }
+        }
+
+        //Drawing zombies with sprite image or red circle
+        SpriteCache.Sprite zombieSprite = SpriteCache.getZombie();
+        if (zombieSprite == null) g2.setColor(Color.RED);
+        for (int i = 0; i < world.getZombieCount(); i++) {
+            double zx = world.getZombieX(i, alpha);
+            double zy = world.getZombieY(i, alpha);
+            if (inside(zx, zy, Zombie.SIZE, x, y, w, h)) {
+                drawZombie(g2, zombieSprite, zx, zy, world.getZombieFacing(i));
+            }
+        }
 
-        AffineTransform old = g2.getTransform();
-        g2.rotate(angle, cx, cy);
-        g2.drawImage(sprite, (int) x, (int) y, width, height, null);
-        g2.setTransform(old);
+        endWorld(g2, camera, playerX, playerY, world.getPlayerFacing());
     }
 
-    // ---------------------------------------------------------
-    // NIGHT MODE
-    // ---------------------------------------------------------
-    public void renderNightMode(Graphics2D g2, Player player, Maze maze, int width, int height) {
+    //moves to the camera, draws the maze and returns the area worth drawing into, in maze pixels
+    private Rectangle beginWorld(Graphics2D g2, Camera camera, Maze maze,
+                                 double playerX, double playerY, boolean lightOnly) {
+
+        // One tile of margin so shake and sprite padding never show an undrawn edge
+        int margin = Maze.TILE_SIZE;
+        int x = camera.getViewX() - margin;
+        int y = camera.getViewY() - margin;
+        int w = camera.getViewWidth() + 2 * margin;
+        int h = camera.getViewHeight() + 2 * margin;
+
+        if (lightOnly) {
+            // Everything past the radius is under 245-alpha darkness anyway
+            int r = nightLight.getRadius();
+            int lx = (int) (playerX + Player.SIZE / 2.0) - r;
+            int ly = (int) (playerY + Player.SIZE / 2.0) - r;
+
+            int x1 = Math.min(x + w, lx + 2 * r);
+            int y1 = Math.min(y + h, ly + 2 * r);
+            x = Math.max(x, lx);
+            y = Math.max(y, ly);
+            w = Math.max(0, x1 - x);
+            h = Math.max(0, y1 - y);
+        }
 
-        BufferedImage darkness = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D gDark = darkness.createGraphics();
+        camera.apply(g2);
 
-        gDark.setColor(new Color(0, 0, 0, 245));
-        gDark.fillRect(0, 0, width, height);
+        worldClip = g2.getClip();
+        if (lightOnly) g2.clipRect(x, y, w, h);
 
-        gDark.setComposite(AlphaComposite.DstOut);
+        mazeLayer.draw(g2, maze, x, y, w, h);
 
-        int radius = 100;
+        drawArea.setBounds(x, y, w, h);
+        return drawArea;
+    }
 
-        // Maze centering
-        int mazeWidth  = Maze.TILE_SIZE * maze.getCols();
-        int mazeHeight = Maze.TILE_SIZE * maze.getRows();
+    //draws the player on top and undoes beginWorld
+    private void endWorld(Graphics2D g2, Camera camera, double playerX, double playerY, double facing) {
+        //Drawing player with sprite image or blue circle
+        SpriteCache.Sprite playerSprite = SpriteCache.getPlayer();
+        if (playerSprite != null) {
+            drawSprite(g2, playerSprite, playerX, playerY, facing);
+        } else {
+            g2.setColor(Color.BLUE);
+            g2.fillOval((int) playerX, (int) playerY, Player.SIZE, Player.SIZE);
+        }
 
-        int offsetX = (width  - mazeWidth)  / 2;
-        int offsetY = (height - mazeHeight) / 2;
+        g2.setClip(worldClip);
+        worldClip = null;
+        camera.reset(g2);
+    }
+
+    private static boolean inside(double ex, double ey, int size, int x, int y, int w, int h) {
+        return ex + size > x && ex < x + w && ey + size > y && ey < y + h;
+    }
 
-        int px = (int) player.getX() + Player.SIZE / 2 + offsetX;
-        int py = (int) player.getY() + Player.SIZE / 2 + offsetY;
+    private void drawCollectible(Graphics2D g2, Collectible c) {
+        if (!c.isCollected()) {
+            g2.fillOval((int) c.getX(), (int) c.getY(),
+                    Collectible.SIZE, Collectible.SIZE);
+        }
+    }
 
-        gDark.fillOval(px - radius, py - radius, radius * 2, radius * 2);
+    //the color is already red when there is no sprite
+    private void drawZombie(Graphics2D g2, SpriteCache.Sprite sprite,
+                            double x, double y, double facing) {
+        if (sprite != null) {
+            drawSprite(g2, sprite, x, y, facing);
+        } else {
+            g2.fillOval((int) x, (int) y, Zombie.SIZE, Zombie.SIZE);
+        }
+    }
 
-        gDark.dispose();
+    //drawing the pre-rotated frame for the facing angle
+    private void drawSprite(Graphics2D g2, SpriteCache.Sprite sprite,
+                            double x, double y, double angle) {
+        int pad = sprite.getPadding();
+        g2.drawImage(sprite.frameFor(angle), (int) x - pad, (int) y - pad, null);
+    }
 
-        g2.drawImage(darkness, 0, 0, null);
+    // ---------------------------------------------------------
+    // NIGHT MODE
+    // ---------------------------------------------------------
+    /**
+     * Darkness around the player at (playerX, playerY), in maze pixels.
+     * worldCulled: the world was drawn with lightOnly, so outside the light is already black.
+     */
+    public void renderNightMode(Graphics2D g2, Camera camera, double playerX, double playerY,
+                                int width, int height, boolean worldCulled) {
+
+        // Player center on screen
+        int px = camera.toScreenX(playerX + Player.SIZE / 2.0);
+        int py = camera.toScreenY(playerY + Player.SIZE / 2.0);
+
+        if (worldCulled) {
+            nightLight.drawLight(g2, px, py);
+        } else {
+            nightLight.draw(g2, px, py, width, height);
+        }
     }
 
     // ---------------------------------------------------------
     // FLASH EFFECT
     // ---------------------------------------------------------
-    public void renderFlash(Graphics2D g2, Player player, int width, int height) {
-        if (player.isFlashing()) {
-            g2.setColor(new Color(1f, 0f, 0f, 0.35f));
+    public void renderFlash(Graphics2D g2, boolean flashing, int width, int height) {
+        if (flashing) {
+            g2.setColor(FLASH_COLOR);
             g2.fillRect(0, 0, width, height);
         }
     }
@@ -226,14 +341,19 @@ public class Renderer {
     // ---------------------------------------------------------
     // OVERLAYS
     // ---------------------------------------------------------
-    public void renderOverlays(Graphics2D g2, GameStateManager gsm, Player player, int width, int height) {
-        overlayRenderer.render(g2, gsm, player, rulesText, nightMode, width, height);
+    public void renderOverlays(Graphics2D g2, GameStateManager gsm, int score, int width, int height) {
+        overlayRenderer.render(g2, gsm, score, rulesText, rulesVersion, nightMode, width, height);
+    }
+
+    public void renderTransition(Graphics2D g2, int secondsLeft, int level, float progress,
+                                 int width, int height) {
+        overlayRenderer.renderTransition(g2, secondsLeft, level, progress, width, height);
     }
 
     // ---------------------------------------------------------
     // HUD
     // ---------------------------------------------------------
-    public void renderHUD(Graphics2D g2, Player player, boolean danger, int width, int height) {
-        hud.render(g2, player, danger, width, height);
+    public void renderHUD(Graphics2D g2, int lives, int score, boolean danger, int width, int height) {
+        hud.render(g2, lives, score, danger, width, height);
     }
 }
@@ -0,0 +1,98 @@
+package model;
+
+/*
+ * Walks a PathfindingService route to a goal tile, one zombie per instance
+ * Only the route (the cluster entrances) is asked for up front, the steps in between are
+ * filled in one segment at a time as the zombie gets there
+ *
+ * The route is asked for again when the goal moves, when the maze is edited, or when the
+ * zombie ends up on a tile off its path
+ */
+public class RoutePathing implements PathingStrategy {
+
+    private static final int[] NO_STEPS = new int[0];
+
+    private final PathfindingService service;
+    private final Maze maze;
+    private final int cols;
+
+    private int goal = -1;
+
+    // Current route, and the index of the route tile the current steps lead to
+    private int[] route;
+    private int routeIndex;
+
+    // Steps of the current segment; steps[stepIndex] is the next tile after `at`
+    private int[] steps = NO_STEPS;
+    private int stepIndex;
+    private int at;
+
+    // Maze version the route was found at
+    private long version;
+
+    public RoutePathing(PathfindingService service) {
+        this.service = service;
+        this.maze = service.getMaze();
+        this.cols = maze.getCols();
+    }
+
+    public void setGoal(int row, int col) {
+        int tile = row * cols + col;
+        if (tile == goal) return;
+        goal = tile;
+        route = null;
+    }
+
+    @Override
+    public int nextDirection(int row, int col) {
+        if (goal < 0) return NONE;
+        int tile = row * cols + col;
+        if (tile == goal) return NONE;
+
+        if (route != null && maze.getVersion() != version) route = null;
+
+        // Moved since last time: fine if it is the next step, otherwise start over from here
+        if (route != null && tile != at) {
+            if (stepIndex < steps.length && steps[stepIndex] == tile) {
+                at = tile;
+                stepIndex++;
+            } else {
+                route = null;
+            }
+        }
+
+        if (route == null && !plan(tile)) return NONE;
+        if (stepIndex == steps.length && !nextSegment()) return NONE;
+
+        int diff = steps[stepIndex] - at;
+        if (diff == -cols) return UP;
+        if (diff == cols) return DOWN;
+        return diff < 0 ? LEFT : RIGHT;
+    }
+
+    private boolean plan(int tile) {
+        version = maze.getVersion();
+        route = service.findRoute(tile / cols, tile % cols, goal / cols, goal % cols);
+        if (route == null) return false;
+
+        routeIndex = 0;
+        steps = NO_STEPS;
+        stepIndex = 0;
+        at = tile;
+        return true;
+    }
+
+    private boolean nextSegment() {
+        if (routeIndex + 1 >= route.length) return false;
+
+        steps = service.segment(route[routeIndex], route[routeIndex + 1]);
+        routeIndex++;
+        stepIndex = 0;
+        if (steps == null || steps.length == 0) {
+            steps = NO_STEPS;
+            route = null;
+            return false;
+        }
+        return true;
+    }
+}
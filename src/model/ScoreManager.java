@@ -24,9 +24,14 @@ public class ScoreManager {
 
     //Loads the scores
     public static List<String[]> loadScores() {
+        return loadScores(new File(FILE));
+    }
+
+    //Loads the scores from another file, sorted best first
+    public static List<String[]> loadScores(File file) {
         List<String[]> list = new ArrayList<>();
 
-        try (Scanner sc = new Scanner(new File(FILE))) {
+        try (Scanner sc = new Scanner(file)) {
             while (sc.hasNextLine()) {
                 String[] parts = sc.nextLine().split(",");
                 if (parts.length == 2) list.add(parts);
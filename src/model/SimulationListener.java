@@ -0,0 +1,26 @@
+package model;
+
+/*
+ * Receives the events from GameSimulation that the screen needs to react to
+ * (camera shake, power-up borders, level countdown, end screens)
+ * Every method is optional so a headless run can ignore all of them
+ */
+public interface SimulationListener {
+
+    default void playerHit() {}
+
+    default void freezeStarted() {}
+    default void freezeEnded() {}
+
+    default void doublePointsStarted() {}
+    default void doublePointsEnded() {}
+
+    //called whenever a maze is loaded, including restarts
+    default void mazeLoaded(Maze maze) {}
+
+    //called after the next level has been loaded, before its countdown
+    default void levelStarted(int level) {}
+
+    //called once with GameMode.WIN or GameMode.GAME_OVER, and the player's final score
+    default void gameEnded(GameMode mode, int score) {}
+}
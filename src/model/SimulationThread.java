@@ -0,0 +1,91 @@
+package model;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Runs a GameSimulation at its fixed rate on a thread of its own
+ * After every tick the world is published to a SnapshotBuffer for the render thread
+ *
+ * Anything else that changes the simulation (restart, level reload) must be posted,
+ * so only this thread ever touches it while it is running
+ */
+public class SimulationThread implements Runnable {
+
+    private final GameSimulation sim;
+    private final InputState input;
+    private final SnapshotBuffer snapshots;
+    private final FixedStepDriver driver;
+
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running = false;
+    private volatile boolean stepping = false;
+    private Thread thread;
+
+    public SimulationThread(GameSimulation sim, InputState input, SnapshotBuffer snapshots) {
+        this.sim = sim;
+        this.input = input;
+        this.snapshots = snapshots;
+        this.driver = new FixedStepDriver(sim);
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    //true while the game is being played, false to hold the simulation still
+    public void setStepping(boolean stepping) {
+        this.stepping = stepping;
+    }
+
+    //runs the task on the simulation thread before its next tick
+    public void post(Runnable task) {
+        tasks.add(task);
+    }
+
+    @Override
+    public void run() {
+        snapshots.publish(sim, System.nanoTime());
+
+        while (running) {
+            boolean changed = false;
+
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+                changed = true;
+            }
+
+            long now = System.nanoTime();
+            if (stepping) {
+                if (driver.advance(now, input) > 0) changed = true;
+            } else {
+                driver.reset();
+            }
+
+            if (changed || snapshots.isViewResized()) snapshots.publish(sim, now);
+
+            // Sleep until the next tick is due
+            double untilNext = stepping ? 1.0 - driver.getAlpha() : 1.0;
+            LockSupport.parkNanos((long) (untilNext * GameSimulation.NANOS_PER_TICK));
+        }
+    }
+}
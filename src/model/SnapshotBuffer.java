@@ -0,0 +1,74 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Lock-free triple buffer of WorldSnapshots between one writer and one reader
+ *
+ * The writer fills its back snapshot and swaps it with the middle one, the reader
+ * swaps the middle one for its front snapshot when a newer one is waiting
+ * Neither side ever waits, and the reader always sees a complete snapshot
+ */
+public class SnapshotBuffer {
+
+    // Set in the middle index when it holds a snapshot the reader has not taken yet
+    private static final int FRESH = 4;
+    private static final int INDEX_MASK = 3;
+
+    private final WorldSnapshot[] snapshots = {
+            new WorldSnapshot(), new WorldSnapshot(), new WorldSnapshot() };
+
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    // Size of the reader's view, snapshots copy what a view this big can show
+    private volatile int viewWidth = 0;
+    private volatile int viewHeight = 0;
+
+    // Only touched by the writer
+    private int back = 0;
+    private WorldSnapshot lastPublished = null;
+    private int capturedWidth = 0;
+    private int capturedHeight = 0;
+
+    // Only touched by the reader
+    private int front = 2;
+
+    /**
+     * Captures the simulation into the back snapshot and makes it the newest one.
+     * Writer thread only.
+     */
+    public void publish(GameSimulation sim, long nowNanos) {
+        WorldSnapshot snapshot = snapshots[back];
+        capturedWidth = viewWidth;
+        capturedHeight = viewHeight;
+        snapshot.capture(sim, lastPublished, nowNanos, capturedWidth, capturedHeight);
+        lastPublished = snapshot;
+
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * True when the view changed size since the last publish, so the newest snapshot may
+     * miss some of what the view now shows. Writer thread only.
+     */
+    public boolean isViewResized() {
+        return viewWidth != capturedWidth || viewHeight != capturedHeight;
+    }
+
+    //size of the view drawing the snapshots, reader thread only
+    public void setViewSize(int width, int height) {
+        viewWidth = width;
+        viewHeight = height;
+    }
+
+    /**
+     * Returns the newest complete snapshot. It stays valid until the next call.
+     * Reader thread only.
+     */
+    public WorldSnapshot latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return snapshots[front];
+    }
+}
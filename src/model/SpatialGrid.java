@@ -0,0 +1,150 @@
+package model;
+
+import java.util.Arrays;
+
+/*
+ * Buckets entities by the maze tile their top-left corner is in
+ * so collision and danger checks only look at the few entities near the player
+ *
+ * Entities are numbered 0..n-1 (the index in a ZombieStore or collectible list)
+ * Each bucket keeps a linked list of ids, so moving between buckets is O(1)
+ */
+public class SpatialGrid {
+
+    private static final int NONE = -1;
+
+    // Huge mazes get buckets of 2x2, 4x4... tiles so the bucket table stays small
+    private static final int MAX_CELLS = 1 << 22;
+
+    private final int rows;
+    private final int cols;
+    private final int cellSize;
+
+    // Largest entity stored, queries reach this far back to catch entities overlapping in
+    private final int maxEntitySize;
+
+    // First id in each bucket
+    private final int[] head;
+
+    // Linked list links and current bucket for each id
+    private int[] next = new int[16];
+    private int[] prev = new int[16];
+    private int[] cellOf = new int[16];
+
+    // Reused query output
+    private int[] result = new int[16];
+
+    public SpatialGrid(int mazeRows, int mazeCols, int maxEntitySize) {
+        int tilesPerCell = 1;
+        while ((long) (mazeRows / tilesPerCell + 1) * (mazeCols / tilesPerCell + 1) > MAX_CELLS) {
+            tilesPerCell *= 2;
+        }
+
+        this.cellSize = Maze.TILE_SIZE * tilesPerCell;
+        this.rows = (mazeRows + tilesPerCell - 1) / tilesPerCell;
+        this.cols = (mazeCols + tilesPerCell - 1) / tilesPerCell;
+        this.maxEntitySize = maxEntitySize;
+
+        head = new int[rows * cols];
+        Arrays.fill(head, NONE);
+        Arrays.fill(cellOf, NONE);
+    }
+
+    private int cellFor(double x, double y) {
+        int col = (int) (x / cellSize);
+        int row = (int) (y / cellSize);
+
+        if (col < 0) col = 0;
+        if (col >= cols) col = cols - 1;
+        if (row < 0) row = 0;
+        if (row >= rows) row = rows - 1;
+
+        return row * cols + col;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < cellOf.length) return;
+
+        int oldLength = cellOf.length;
+        int capacity = Math.max(id + 1, oldLength * 2);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        cellOf = Arrays.copyOf(cellOf, capacity);
+        Arrays.fill(cellOf, oldLength, capacity, NONE);
+    }
+
+    //adds an entity whose top-left corner is at (x, y)
+    public void insert(int id, double x, double y) {
+        ensureCapacity(id);
+        if (cellOf[id] != NONE) remove(id);
+        link(id, cellFor(x, y));
+    }
+
+    //call after an entity moved, only relinks when it changed buckets
+    public void move(int id, double x, double y) {
+        int cell = cellFor(x, y);
+        if (cellOf[id] == cell) return;
+
+        unlink(id);
+        link(id, cell);
+    }
+
+    public void remove(int id) {
+        if (id >= cellOf.length || cellOf[id] == NONE) return;
+        unlink(id);
+    }
+
+    public boolean contains(int id) {
+        return id < cellOf.length && cellOf[id] != NONE;
+    }
+
+    private void link(int id, int cell) {
+        int first = head[cell];
+        next[id] = first;
+        prev[id] = NONE;
+        if (first != NONE) prev[first] = id;
+        head[cell] = id;
+        cellOf[id] = cell;
+    }
+
+    private void unlink(int id) {
+        int cell = cellOf[id];
+        if (prev[id] != NONE) next[prev[id]] = next[id];
+        else head[cell] = next[id];
+        if (next[id] != NONE) prev[next[id]] = prev[id];
+        cellOf[id] = NONE;
+    }
+
+    /**
+     * Finds every entity that might overlap the given box.
+     * The ids are written to getResult(), callers still do the exact overlap test.
+     *
+     * @return the number of ids found
+     */
+    public int query(double minX, double minY, double maxX, double maxY) {
+        // An entity starting up to maxEntitySize before the box can still reach into it
+        int first = cellFor(minX - maxEntitySize, minY - maxEntitySize);
+        int last = cellFor(maxX, maxY);
+
+        int firstRow = first / cols;
+        int firstCol = first % cols;
+        int lastRow = last / cols;
+        int lastCol = last % cols;
+
+        int found = 0;
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                for (int id = head[r * cols + c]; id != NONE; id = next[id]) {
+                    if (found == result.length) result = Arrays.copyOf(result, found * 2);
+                    result[found++] = id;
+                }
+            }
+        }
+        return found;
+    }
+
+    //ids from the last query, only the first query() entries are valid
+    public int[] getResult() {
+        return result;
+    }
+}
@@ -3,7 +3,7 @@ package model;
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /*
  * Spawns the player, zombies, and collectibles
@@ -15,13 +15,19 @@ public class Spawner {
     public static final int DEFAULT_COLLECTIBLE_COUNT = 10;
 
     private final Maze maze;
-    private final Random random = new Random();
+    private final SplittableRandom random;
 
     // Level-specific zombie count
     private int zombieCount = DEFAULT_ZOMBIE_COUNT;
 
     public Spawner(Maze maze) {
+        this(maze, new SplittableRandom());
+    }
+
+    //spawns the same things in the same places for the same stream, see GameRandom
+    public Spawner(Maze maze, SplittableRandom random) {
         this.maze = maze;
+        this.random = random;
     }
 
     // Allow GameComponent to override zombie count per level
@@ -54,7 +60,7 @@ public class Spawner {
         // If map contains 'Z/z' tiles → spawn exactly there
         if (!spawnTiles.isEmpty()) {
             for (Point p : spawnTiles) {
-                zombies.add(new Zombie(p.x, p.y, maze));
+                zombies.add(new Zombie(p.x, p.y, maze, random.split()));
             }
             return zombies;
         }
@@ -91,7 +97,7 @@ public class Spawner {
             if (tooClose) continue;
 
             // Valid spawn
-            zombies.add(new Zombie(row, col, maze));
+            zombies.add(new Zombie(row, col, maze, random.split()));
         }
 
         return zombies;
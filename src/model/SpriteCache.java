@@ -0,0 +1,124 @@
+package model;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+
+/*
+ * Decodes each sprite image once and keeps it for the whole program
+ * Every facing the entity can have is pre-rotated, so drawing is a plain drawImage
+ *
+ * Zombies only move along the four axes, the player can also move diagonally (8 facings)
+ */
+public class SpriteCache {
+
+    public static final int ZOMBIE_FRAMES = 4;
+    public static final int PLAYER_FRAMES = 8;
+
+    private static final ConcurrentHashMap<String, Sprite> SPRITES = new ConcurrentHashMap<>();
+
+    // Stands in for images that could not be loaded, so we only try once
+    private static final Sprite MISSING = new Sprite(null, null, 0);
+
+    /*
+     * One decoded image plus its pre-rotated frames
+     */
+    public static class Sprite {
+
+        private final BufferedImage image;
+        private final BufferedImage[] frames;
+        private final int padding;
+
+        Sprite(BufferedImage image, BufferedImage[] frames, int padding) {
+            this.image = image;
+            this.frames = frames;
+            this.padding = padding;
+        }
+
+        //the decoded image at its original size
+        public BufferedImage getImage() { return image; }
+
+        //how far each frame reaches past the entity box on every side
+        public int getPadding() { return padding; }
+
+        public int getFrameCount() { return frames.length; }
+
+        //the frame closest to the given facing angle (radians, as from Math.atan2)
+        public BufferedImage frameFor(double angle) {
+            int n = frames.length;
+            int index = (int) Math.round(angle / (2 * Math.PI / n)) % n;
+            if (index < 0) index += n;
+            return frames[index];
+        }
+    }
+
+    // Prevent instantiation
+    private SpriteCache() {}
+
+    public static Sprite getZombie() {
+        return get(Zombie.ZOMBIE_SPRITE, Zombie.SIZE, ZOMBIE_FRAMES);
+    }
+
+    public static Sprite getPlayer() {
+        return get(Player.PLAYER_SPRITE, Player.SIZE, PLAYER_FRAMES);
+    }
+
+    /**
+     * Returns the sprite for a resource path, scaled to size and rotated into
+     * the given number of evenly spaced facings. Loads it on first use.
+     *
+     * @return the sprite, or null if the image could not be read
+     */
+    public static Sprite get(String path, int size, int frameCount) {
+        String key = path + "@" + size + "x" + frameCount;
+        Sprite sprite = SPRITES.computeIfAbsent(key, k -> load(path, size, frameCount));
+        return sprite == MISSING ? null : sprite;
+    }
+
+    private static Sprite load(String path, int size, int frameCount) {
+        BufferedImage source;
+        try {
+            source = ImageIO.read(SpriteCache.class.getResource(path));
+        } catch (Exception e) {
+            System.err.println("Sprite not found: " + path + " " + e);
+            return MISSING;
+        }
+        if (source == null) return MISSING;
+
+        // Diagonal facings stick out of the box, cardinal ones do not
+        int padding = frameCount > 4 ? (int) Math.ceil(size * (Math.sqrt(2) - 1) / 2) : 0;
+        int canvas = size + 2 * padding;
+
+        BufferedImage[] frames = new BufferedImage[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            double angle = i * 2 * Math.PI / frameCount;
+
+            BufferedImage frame = createCompatibleImage(canvas, canvas);
+            Graphics2D g = frame.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.translate(padding, padding);
+            g.rotate(angle, size / 2.0, size / 2.0);
+            g.drawImage(source, 0, 0, size, size, null);
+            g.dispose();
+
+            frames[i] = frame;
+        }
+
+        return new Sprite(source, frames, padding);
+    }
+
+    //an image in the screen's own pixel format, so drawing it needs no conversion
+    private static BufferedImage createCompatibleImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration()
+                .createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+}
@@ -0,0 +1,203 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Everything the screen needs to draw one simulation tick, copied out of GameSimulation
+ * Snapshots are pooled by SnapshotBuffer and refilled in place, so capturing allocates
+ * nothing once the arrays are big enough
+ *
+ * Each snapshot also keeps the positions of the tick before it, so the renderer can
+ * interpolate between the two when the display runs at a different rate
+ *
+ * Only the zombies and collectibles the spatial grids find around the player are copied,
+ * as far out as a view of the given size can reach while it shows the player, so a capture
+ * costs the same whatever the size of the maze or the horde
+ */
+public class WorldSnapshot {
+
+    // Moves longer than this between two ticks are respawns, not movement
+    private static final double TELEPORT_DISTANCE = Maze.TILE_SIZE;
+
+    // Copied past the view's reach, for the camera trailing behind the player
+    public static final int CAPTURE_MARGIN = 4 * Maze.TILE_SIZE;
+
+    private long tick = -1;
+    private long captureNanos = 0;
+
+    private Maze maze;
+    private GameMode mode = GameMode.PLAYING;
+    private int currentLevel;
+    private int transitionTicks;
+    private boolean danger;
+
+    // Player
+    private double playerX, playerY, playerPrevX, playerPrevY;
+    private double playerFacing;
+    private int lives;
+    private int score;
+    private boolean flashing;
+
+    // Zombies near the player, by index in zombieStore, in index order
+    private ZombieStore zombieStore;
+    private int zombieCount = 0;
+    private int[] zombieIds = new int[16];
+    private double[] zombieX = new double[16];
+    private double[] zombieY = new double[16];
+    private double[] zombiePrevX = new double[16];
+    private double[] zombiePrevY = new double[16];
+    private double[] zombieFacing = new double[16];
+
+    // Collectibles near the player, only the ones not collected yet
+    private int collectibleCount = 0;
+    private double[] collectibleX = new double[16];
+    private double[] collectibleY = new double[16];
+
+    // Zombies in each ZombieScheduler band
+    private final int[] bandCounts = new int[ZombieScheduler.BANDS];
+
+    /**
+     * Fills this snapshot from the simulation.
+     *
+     * @param previous the snapshot published before this one (its positions become the
+     *                 "previous" ones here), or null when there is none
+     * @param viewWidth width of the view that will draw it, in pixels
+     * @param viewHeight height of the view that will draw it, in pixels
+     */
+    public void capture(GameSimulation sim, WorldSnapshot previous, long nowNanos,
+                        int viewWidth, int viewHeight) {
+        tick = sim.getTick();
+        captureNanos = nowNanos;
+
+        maze = sim.getMaze();
+        mode = sim.getMode();
+        currentLevel = sim.getCurrentLevel();
+        transitionTicks = sim.getTransitionTicks();
+        danger = sim.isInDanger();
+
+        // A new level or restart has nothing to interpolate from
+        boolean continuous = previous != null && previous.maze == maze;
+
+        Player player = sim.getPlayer();
+        playerX = player.getX();
+        playerY = player.getY();
+        playerFacing = player.getFacingAngle();
+        lives = player.getLives();
+        score = player.getScore();
+        flashing = player.isFlashing();
+
+        if (continuous && Math.abs(previous.playerX - playerX) < TELEPORT_DISTANCE
+                && Math.abs(previous.playerY - playerY) < TELEPORT_DISTANCE) {
+            playerPrevX = previous.playerX;
+            playerPrevY = previous.playerY;
+        } else {
+            playerPrevX = playerX;
+            playerPrevY = playerY;
+        }
+
+        // Any view showing the player lies inside this box, wherever the camera is clamped
+        double minX = playerX - viewWidth - CAPTURE_MARGIN;
+        double minY = playerY - viewHeight - CAPTURE_MARGIN;
+        double maxX = playerX + Player.SIZE + viewWidth + CAPTURE_MARGIN;
+        double maxY = playerY + Player.SIZE + viewHeight + CAPTURE_MARGIN;
+
+        ZombieStore zombies = sim.getZombies();
+        SpatialGrid zombieGrid = zombies.getGrid();
+        zombieCount = zombieGrid.query(minX, minY, maxX, maxY);
+        ensureZombieCapacity(zombieCount);
+        System.arraycopy(zombieGrid.getResult(), 0, zombieIds, 0, zombieCount);
+        // Index order, so one walk along the previous snapshot finds every zombie in it
+        Arrays.sort(zombieIds, 0, zombieCount);
+
+        boolean sameZombies = continuous && previous.zombieStore == zombies;
+        int p = 0;
+        for (int k = 0; k < zombieCount; k++) {
+            int i = zombieIds[k];
+            zombieX[k] = zombies.getX(i);
+            zombieY[k] = zombies.getY(i);
+            zombieFacing[k] = zombies.getFacingAngle(i);
+
+            if (sameZombies) {
+                while (p < previous.zombieCount && previous.zombieIds[p] < i) p++;
+            }
+            if (sameZombies && p < previous.zombieCount && previous.zombieIds[p] == i) {
+                zombiePrevX[k] = previous.zombieX[p];
+                zombiePrevY[k] = previous.zombieY[p];
+            } else {
+                // Just came into reach, it is still off screen
+                zombiePrevX[k] = zombieX[k];
+                zombiePrevY[k] = zombieY[k];
+            }
+        }
+        zombieStore = zombies;
+
+        for (int b = 0; b < ZombieScheduler.BANDS; b++) {
+            bandCounts[b] = sim.getZombieScheduler().getBandCount(b);
+        }
+
+        // Collected ones have already left the grid
+        List<Collectible> collectibles = sim.getCollectibles();
+        SpatialGrid collectibleGrid = sim.getCollectibleGrid();
+        collectibleCount = collectibleGrid.query(minX, minY, maxX, maxY);
+        ensureCollectibleCapacity(collectibleCount);
+        int[] found = collectibleGrid.getResult();
+        for (int k = 0; k < collectibleCount; k++) {
+            Collectible c = collectibles.get(found[k]);
+            collectibleX[k] = c.getX();
+            collectibleY[k] = c.getY();
+        }
+    }
+
+    private void ensureZombieCapacity(int n) {
+        if (n <= zombieX.length) return;
+        int capacity = Math.max(n, zombieX.length * 2);
+        zombieIds = Arrays.copyOf(zombieIds, capacity);
+        zombieX = Arrays.copyOf(zombieX, capacity);
+        zombieY = Arrays.copyOf(zombieY, capacity);
+        zombiePrevX = Arrays.copyOf(zombiePrevX, capacity);
+        zombiePrevY = Arrays.copyOf(zombiePrevY, capacity);
+        zombieFacing = Arrays.copyOf(zombieFacing, capacity);
+    }
+
+    private void ensureCollectibleCapacity(int n) {
+        if (n <= collectibleX.length) return;
+        int capacity = Math.max(n, collectibleX.length * 2);
+        collectibleX = Arrays.copyOf(collectibleX, capacity);
+        collectibleY = Arrays.copyOf(collectibleY, capacity);
+    }
+
+    //linear blend, alpha 0 = previous tick, 1 = this tick
+    private static double lerp(double from, double to, float alpha) {
+        return from + (to - from) * alpha;
+    }
+
+    public boolean isEmpty() { return tick < 0; }
+    public long getTick() { return tick; }
+    public long getCaptureNanos() { return captureNanos; }
+
+    public Maze getMaze() { return maze; }
+    public GameMode getMode() { return mode; }
+    public int getCurrentLevel() { return currentLevel; }
+    public int getTransitionTicks() { return transitionTicks; }
+    public boolean isInDanger() { return danger; }
+
+    public double getPlayerX(float alpha) { return lerp(playerPrevX, playerX, alpha); }
+    public double getPlayerY(float alpha) { return lerp(playerPrevY, playerY, alpha); }
+    public double getPlayerFacing() { return playerFacing; }
+    public int getLives() { return lives; }
+    public int getScore() { return score; }
+    public boolean isFlashing() { return flashing; }
+
+    //zombies copied, the ones near the player
+    public int getZombieCount() { return zombieCount; }
+    public double getZombieX(int i, float alpha) { return lerp(zombiePrevX[i], zombieX[i], alpha); }
+    public double getZombieY(int i, float alpha) { return lerp(zombiePrevY[i], zombieY[i], alpha); }
+    public double getZombieFacing(int i) { return zombieFacing[i]; }
+    public int getBandCount(int band) { return bandCounts[band]; }
+
+    //collectibles copied, the ones near the player that are still there
+    public int getCollectibleCount() { return collectibleCount; }
+    public double getCollectibleX(int i) { return collectibleX[i]; }
+    public double getCollectibleY(int i) { return collectibleY[i]; }
+}
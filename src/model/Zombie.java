@@ -1,15 +1,16 @@
 package model;
 
 import java.awt.Image;
-import javax.imageio.ImageIO;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /*
  * Handles zombie movement and collisions
+ * Zombies wander unless given a PathingStrategy, then they follow it while it has a way to go
  */
 public class Zombie extends Entity {
 
     public static final int SIZE = 22;
+    public static final double SPEED = 2.6;
 
     // Constants
     public static final int COLLISION_COOLDOWN_FRAMES = 30;
@@ -17,40 +18,44 @@ public class Zombie extends Entity {
     // sprite folder
     public static final String ZOMBIE_SPRITE = "/images/zombie.png";
 
-    private double speed = 2.6;
+    private double speed = SPEED;
 
     private final Maze maze;
-    private Image sprite;
 
     private int collisionCooldown = 0;
 
-    private final Random random = new Random();
+    private final SplittableRandom random;
 
     private double dirX = 1;
     private double dirY = 0;
 
     private double facingAngle = 0.0;
 
-    //Spawning zombies in the middle of their tile and loading the sprite image
+    // null = wander
+    private PathingStrategy pathing;
+
+    //Spawning zombies in the middle of their tile, the sprite comes from SpriteCache
     public Zombie(int startRow, int startCol, Maze maze) {
+        this(startRow, startCol, maze, new SplittableRandom());
+    }
+
+    //the zombie's own stream, e.g. split off the spawner's so a seed decides where it heads
+    public Zombie(int startRow, int startCol, Maze maze, SplittableRandom random) {
         this.maze = maze;
+        this.random = random;
 
         this.size = SIZE;
 
         this.x = startCol * Maze.TILE_SIZE + (Maze.TILE_SIZE - SIZE) / 2.0;
         this.y = startRow * Maze.TILE_SIZE + (Maze.TILE_SIZE - SIZE) / 2.0;
 
-        try {
-            sprite = ImageIO.read(Zombie.class.getResource(ZOMBIE_SPRITE));
-        } catch (Exception e) {
-            sprite = null;
-            System.err.println("Zombie sprite not found: " + e);
-        }
-
         randomizeDirection();
     }
 
-    public Image getSprite() { return sprite; }
+    public Image getSprite() {
+        SpriteCache.Sprite sprite = SpriteCache.getZombie();
+        return sprite == null ? null : sprite.getImage();
+    }
 
     //collision management
     public boolean isInCollisionCooldown() { return collisionCooldown > 0; }
@@ -59,6 +64,12 @@ public class Zombie extends Entity {
 
     public double getFacingAngle() { return facingAngle; }
 
+    public double getDirX() { return dirX; }
+    public double getDirY() { return dirY; }
+
+    public PathingStrategy getPathingStrategy() { return pathing; }
+    public void setPathingStrategy(PathingStrategy pathing) { this.pathing = pathing; }
+
     //movement mechanics
     private void randomizeDirection() {
         int dir = random.nextInt(4);
@@ -76,6 +87,8 @@ public class Zombie extends Entity {
     public void update() {
         tickCollisionCooldown();
 
+        if (pathing != null && followPath()) return;
+
         double dx = dirX * speed;
         double dy = dirY * speed;
 
@@ -94,6 +107,37 @@ public class Zombie extends Entity {
         }
     }
 
+    /*
+     * One step the way the strategy says. Like ZombieStore's chase, it first lines up with
+     * the middle of its tile across that way, so it only enters tiles on the path and needs
+     * no wall probes. False when the strategy has nowhere to go
+     */
+    private boolean followPath() {
+        int tileSize = Maze.TILE_SIZE;
+        int col = (int) (x + SIZE / 2.0) / tileSize;
+        int row = (int) (y + SIZE / 2.0) / tileSize;
+
+        int dir = pathing.nextDirection(row, col);
+        if (dir == PathingStrategy.NONE) return false;
+
+        boolean vertical = dir == PathingStrategy.UP || dir == PathingStrategy.DOWN;
+        double across = vertical
+                ? col * tileSize + (tileSize - SIZE) / 2.0 - x
+                : row * tileSize + (tileSize - SIZE) / 2.0 - y;
+        double shift = Math.max(-speed, Math.min(speed, across));
+        double along = speed - Math.abs(shift);
+
+        dirX = PathingStrategy.colStep(dir);
+        dirY = PathingStrategy.rowStep(dir);
+        if (vertical) x += shift;
+        else y += shift;
+        x += dirX * along;
+        y += dirY * along;
+
+        facingAngle = Math.atan2(dirY, dirX);
+        return true;
+    }
+
     //collides with wall and picks a random direction to move int
     private boolean collidesWithWall(double px, double py) {
         int tileSize = Maze.TILE_SIZE;
@@ -108,9 +152,9 @@ public class Zombie extends Entity {
         int topRow    = top    / tileSize;
         int bottomRow = bottom / tileSize;
 
-        return !maze.isWalkable(topRow, leftCol) ||
-               !maze.isWalkable(topRow, rightCol) ||
-               !maze.isWalkable(bottomRow, leftCol) ||
-               !maze.isWalkable(bottomRow, rightCol);
+        return !maze.isWalkableUnchecked(topRow, leftCol) ||
+               !maze.isWalkableUnchecked(topRow, rightCol) ||
+               !maze.isWalkableUnchecked(bottomRow, leftCol) ||
+               !maze.isWalkableUnchecked(bottomRow, rightCol);
     }
 }
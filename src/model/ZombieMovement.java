@@ -0,0 +1,16 @@
+package model;
+
+/*
+ * How the zombies of a ZombieStore pick where to go
+ */
+public enum ZombieMovement {
+
+    // Walk straight and turn a random way after bumping a wall
+    WANDER,
+
+    // Follow the FlowField toward the player's tile
+    CHASE,
+
+    // Walk the corridors of a CorridorGraph, picking a random way at each junction
+    CORRIDOR
+}
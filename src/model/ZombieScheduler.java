@@ -0,0 +1,128 @@
+package model;
+
+import java.util.Arrays;
+
+/*
+ * Decides which zombies move on a tick, by how far they are from the player
+ * Zombies are put in bands by distance in tiles (the larger of across and down, so a band
+ * is a square around the player like the view is). Band 0 moves every tick, exactly as
+ * before; band 1 every 2nd tick, band 2 every 4th and band 3 every 8th, each time making up
+ * the ticks it skipped, so the average speed is the same
+ *
+ * Zombies of one band are spread over the ticks by their index, so every tick does about
+ * the same amount of work. A zombie's band is only worked out again every 8th tick, on a
+ * tick where it is due whatever its band, so changing band never skips or repeats a tick
+ */
+public class ZombieScheduler {
+
+    public static final int BANDS = 4;
+
+    // Outer edge of bands 0, 1 and 2 in tiles, band 3 is everything further away
+    public static final int[] DEFAULT_RADII = { 24, 48, 96 };
+
+    private final int[] radii = DEFAULT_RADII.clone();
+    private boolean enabled = true;
+
+    private static final int LONGEST_PERIOD = 1 << (BANDS - 1);
+
+    // Band of each zombie, as of its last 8th tick, and ticks' worth to move it this tick
+    private byte[] bands = new byte[0];
+    private int[] steps = new int[0];
+
+    // Store the bands belong to, a new one (level load, restart) starts every zombie over
+    private ZombieStore store;
+
+    // Zombies in each band on the last update
+    private final int[] counts = new int[BANDS];
+    private int updated = 0;
+
+    public boolean isEnabled() { return enabled; }
+
+    //false moves every zombie every tick
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    /**
+     * Sets the outer edge of bands 0, 1 and 2, in tiles.
+     */
+    public void setRadii(int near, int middle, int far) {
+        if (near < 0 || middle < near || far < middle) {
+            throw new IllegalArgumentException("radii must grow: " + near + ", " + middle + ", " + far);
+        }
+        radii[0] = near;
+        radii[1] = middle;
+        radii[2] = far;
+    }
+
+    public int getRadius(int band) { return radii[band]; }
+
+    //a zombie in the band moves once every this many ticks
+    public static int getPeriod(int band) { return 1 << band; }
+
+    public int getBandCount(int band) { return counts[band]; }
+
+    //zombies actually moved on the last update
+    public int getUpdatedCount() { return updated; }
+
+    /**
+     * Moves the zombies that are due on this tick.
+     *
+     * @param playerX middle of the player, in pixels
+     * @param playerY middle of the player, in pixels
+     */
+    public void update(ZombieStore zombies, long tick, double playerX, double playerY) {
+        for (int b = 0; b < BANDS; b++) counts[b] = 0;
+
+        int n = zombies.size();
+        if (!enabled) {
+            // Switched on again, the bands are worked out from scratch
+            store = null;
+            zombies.updateAll();
+            counts[0] = n;
+            updated = n;
+            return;
+        }
+
+        // New zombies start in band 0 until their first 8th tick
+        if (zombies != store) {
+            Arrays.fill(bands, (byte) 0);
+            store = zombies;
+        }
+        if (bands.length < n) {
+            bands = Arrays.copyOf(bands, Math.max(n, bands.length * 2));
+            steps = new int[bands.length];
+        }
+
+        int playerRow = (int) (playerY / Maze.TILE_SIZE);
+        int playerCol = (int) (playerX / Maze.TILE_SIZE);
+        int moved = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (((tick + i) & (LONGEST_PERIOD - 1)) == 0) {
+                bands[i] = (byte) bandOf(zombies, i, playerRow, playerCol);
+            }
+            int band = bands[i];
+            counts[band]++;
+
+            int period = 1 << band;
+            if (((tick + i) & (period - 1)) == 0) {
+                steps[i] = period;
+                moved++;
+            } else {
+                steps[i] = 0;
+            }
+        }
+        zombies.update(steps);
+        updated = moved;
+    }
+
+    private int bandOf(ZombieStore zombies, int i, int playerRow, int playerCol) {
+        double half = Zombie.SIZE / 2.0;
+        int row = (int) ((zombies.getY(i) + half) / Maze.TILE_SIZE);
+        int col = (int) ((zombies.getX(i) + half) / Maze.TILE_SIZE);
+        int distance = Math.max(Math.abs(row - playerRow), Math.abs(col - playerCol));
+
+        int band = 0;
+        while (band < BANDS - 1 && distance > radii[band]) band++;
+        return band;
+    }
+}
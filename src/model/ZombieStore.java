@@ -0,0 +1,533 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/*
+ * Keeps every zombie of a level in parallel primitive arrays instead of one Zombie object each
+ * updateAll() moves them with the same rules as Zombie.update(), without allocating anything
+ *
+ * Each slot has its own LCG, seeded from the store's seed and the slot's number. It picks
+ * directions the way Zombie.update() does, but not the same ones: a Zombie draws from its
+ * own SplittableRandom
+ *
+ * In CHASE movement they follow a FlowField toward the player instead of wandering
+ * In CORRIDOR movement they walk the segments of a CorridorGraph and only pick a way at
+ * junctions, never probing the maze for walls
+ *
+ * Moving a zombie only reads the maze (and field or graph) and its own slot, so big hordes are
+ * moved in chunks on a ForkJoinPool, and the spatial grid, the one thing they share, is
+ * updated afterwards on the calling thread in index order. The result is the same bit for
+ * bit whatever the number of threads
+ */
+public class ZombieStore implements ZombieView {
+
+    // The per-slot LCG, with the constants of java.util.Random's generator
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Most ticks a wanderer takes as one jump
+    private static final int MAX_JUMP_STEPS = (int) (Zombie.SIZE / Zombie.SPEED);
+
+    // Hordes at least this big are moved in parallel, in chunks of CHUNK_SIZE zombies
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+    public static final int CHUNK_SIZE = 1024;
+
+    private final Maze maze;
+    private final SpatialGrid grid;
+    private long nextSeed;
+
+    private int count = 0;
+
+    // One slot per zombie
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] dirX = new double[INITIAL_CAPACITY];
+    private double[] dirY = new double[INITIAL_CAPACITY];
+    private int[] cooldown = new int[INITIAL_CAPACITY];
+    private float[] facing = new float[INITIAL_CAPACITY];
+    private long[] rng = new long[INITIAL_CAPACITY];
+
+    // CORRIDOR only: segment walked (-1 = not on the graph yet), which way, the step of it
+    // the zombie last passed the middle of, and pixels gone since
+    private int[] segment = new int[INITIAL_CAPACITY];
+    private boolean[] reversed = new boolean[INITIAL_CAPACITY];
+    private int[] step = new int[INITIAL_CAPACITY];
+    private double[] part = new double[INITIAL_CAPACITY];
+
+    // WANDER, CHASE along the flow field, or CORRIDOR along the graph
+    private ZombieMovement movement = ZombieMovement.WANDER;
+    private FlowField flowField;
+    private CorridorGraph corridors;
+    private long corridorBuilds;
+
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    public ZombieStore(Maze maze, long seed) {
+        this.maze = maze;
+        this.nextSeed = seed;
+        this.grid = new SpatialGrid(maze.getRows(), maze.getCols(), Zombie.SIZE);
+    }
+
+    //copies the positions and directions of already spawned zombies
+    public static ZombieStore from(List<Zombie> zombies, Maze maze, long seed) {
+        ZombieStore store = new ZombieStore(maze, seed);
+        for (Zombie z : zombies) {
+            int i = store.addAt(z.getX(), z.getY());
+            store.dirX[i] = z.getDirX();
+            store.dirY[i] = z.getDirY();
+        }
+        return store;
+    }
+
+    //spawns a zombie in the middle of a tile, like new Zombie(row, col, maze)
+    public int add(int row, int col) {
+        return addAt(col * Maze.TILE_SIZE + (Maze.TILE_SIZE - Zombie.SIZE) / 2.0,
+                     row * Maze.TILE_SIZE + (Maze.TILE_SIZE - Zombie.SIZE) / 2.0);
+    }
+
+    //spawns a zombie at a pixel position facing a random direction
+    public int addAt(double px, double py) {
+        if (count == x.length) grow();
+
+        int i = count++;
+        x[i] = px;
+        y[i] = py;
+        cooldown[i] = 0;
+        facing[i] = 0f;
+        rng[i] = ((nextSeed++ * 0x9E3779B97F4A7C15L) ^ MULTIPLIER) & MASK;
+        segment[i] = -1;
+        randomizeDirection(i);
+        grid.insert(i, px, py);
+        return i;
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        dirX = Arrays.copyOf(dirX, capacity);
+        dirY = Arrays.copyOf(dirY, capacity);
+        cooldown = Arrays.copyOf(cooldown, capacity);
+        facing = Arrays.copyOf(facing, capacity);
+        rng = Arrays.copyOf(rng, capacity);
+        segment = Arrays.copyOf(segment, capacity);
+        reversed = Arrays.copyOf(reversed, capacity);
+        step = Arrays.copyOf(step, capacity);
+        part = Arrays.copyOf(part, capacity);
+    }
+
+    @Override
+    public int size() { return count; }
+
+    //zombies bucketed by tile, kept up to date by updateAll()
+    public SpatialGrid getGrid() { return grid; }
+
+    @Override
+    public double getX(int i) { return x[i]; }
+
+    @Override
+    public double getY(int i) { return y[i]; }
+
+    public double getDirX(int i) { return dirX[i]; }
+    public double getDirY(int i) { return dirY[i]; }
+
+    @Override
+    public double getFacingAngle(int i) { return facing[i]; }
+
+    //collision management
+    @Override
+    public boolean isInCollisionCooldown(int i) { return cooldown[i] > 0; }
+
+    @Override
+    public void triggerCollisionCooldown(int i) { cooldown[i] = Zombie.COLLISION_COOLDOWN_FRAMES; }
+
+    /**
+     * Sets how the zombies move. CHASE needs a flow field over this store's maze,
+     * zombies on tiles it cannot reach keep wandering. CORRIDOR needs a corridor graph.
+     */
+    public void setMovement(ZombieMovement movement, FlowField flowField, CorridorGraph corridors) {
+        if (movement == ZombieMovement.CHASE && flowField == null) {
+            throw new IllegalArgumentException("CHASE needs a flow field");
+        }
+        if (movement == ZombieMovement.CORRIDOR && corridors == null) {
+            throw new IllegalArgumentException("CORRIDOR needs a corridor graph");
+        }
+        this.movement = movement;
+        this.flowField = flowField;
+        this.corridors = corridors;
+
+        // Everyone finds their place on the graph again from where they stand
+        Arrays.fill(segment, 0, count, -1);
+        if (corridors != null) corridorBuilds = corridors.getBuilds();
+    }
+
+    public ZombieMovement getMovement() { return movement; }
+
+    /**
+     * Moves hordes of at least threshold zombies on the pool's threads (when it has more
+     * than one). Integer.MAX_VALUE keeps every update on the calling thread.
+     */
+    public void setParallelism(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.parallelThreshold = threshold;
+    }
+
+    public int getParallelThreshold() { return parallelThreshold; }
+
+    //moves every zombie one tick
+    public void updateAll() {
+        update(null);
+    }
+
+    /**
+     * Moves each zombie steps[i] ticks' worth (see update(i, steps)), 0 leaves it where it is.
+     * null moves every zombie one tick.
+     */
+    public void update(int[] steps) {
+        prepareUpdate();
+
+        if (count < parallelThreshold || pool.getParallelism() < 2) {
+            for (int i = 0; i < count; i++) {
+                int n = steps == null ? 1 : steps[i];
+                if (n > 0) update(i, n);
+            }
+            return;
+        }
+
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        pool.submit(() -> IntStream.range(0, chunks).parallel()
+                .forEach(c -> moveChunk(c * CHUNK_SIZE, Math.min(count, (c + 1) * CHUNK_SIZE), steps)))
+                .join();
+
+        // The grid is shared, so it catches up here, one zombie after the other
+        for (int i = 0; i < count; i++) {
+            if (steps == null || steps[i] > 0) grid.move(i, x[i], y[i]);
+        }
+    }
+
+    private void moveChunk(int from, int to, int[] steps) {
+        for (int i = from; i < to; i++) {
+            int n = steps == null ? 1 : steps[i];
+            if (n > 0) move(i, n);
+        }
+    }
+
+    //once per tick before update(i, steps), catches up with maze edits
+    public void prepareUpdate() {
+        // A rebuilt graph has new segment numbers
+        if (movement == ZombieMovement.CORRIDOR
+                && (corridors.update() || corridors.getBuilds() != corridorBuilds)) {
+            Arrays.fill(segment, 0, count, -1);
+            corridorBuilds = corridors.getBuilds();
+        }
+    }
+
+    /**
+     * Moves one zombie as far as it goes in the given number of ticks, for zombies that
+     * are not updated every tick (see ZombieScheduler). One step is exactly one tick of
+     * updateAll(). Wandering and corridor zombies take it as one longer step; chasing ones
+     * take the steps one by one so they still turn in the middle of each tile.
+     */
+    public void update(int i, int steps) {
+        move(i, steps);
+        grid.move(i, x[i], y[i]);
+    }
+
+    //everything update(i, steps) does but the grid, touches only slot i
+    private void move(int i, int steps) {
+        switch (movement) {
+            case CHASE -> {
+                for (int k = 0; k < steps; k++) chase(i);
+            }
+            case CORRIDOR -> corridor(i, steps);
+            default -> wander(i, steps);
+        }
+    }
+
+    //same steps as Zombie.update(), steps ticks' worth at once
+    private void wander(int i, int steps) {
+        double dx = dirX[i] * Zombie.SPEED * steps;
+        double dy = dirY[i] * Zombie.SPEED * steps;
+
+        // A wall somewhere on the way: walk up to it and turn tick by tick, like
+        // updateAll() would have. A jump no longer than a zombie overlaps where it
+        // started, so a free end means every tick on the way was free too
+        if (steps > 1 && (steps > MAX_JUMP_STEPS
+                || collidesWithWall(x[i] + dx, y[i]) || collidesWithWall(x[i], y[i] + dy))) {
+            for (int k = 0; k < steps; k++) wander(i, 1);
+            return;
+        }
+
+        cooldown[i] = Math.max(0, cooldown[i] - steps);
+
+        boolean collided = false;
+
+        if (!collidesWithWall(x[i] + dx, y[i])) x[i] += dx;
+        else collided = true;
+
+        if (!collidesWithWall(x[i], y[i] + dy)) y[i] += dy;
+        else collided = true;
+
+        if (collided) randomizeDirection(i);
+
+        // Zombies only move along one axis, so this matches Math.atan2(dy, dx)
+        if (dx > 0)      facing[i] = 0f;
+        else if (dx < 0) facing[i] = (float) Math.PI;
+        else if (dy > 0) facing[i] = (float) (Math.PI / 2);
+        else if (dy < 0) facing[i] = (float) (-Math.PI / 2);
+    }
+
+    /*
+     * One step along the flow field. The zombie first lines up with the middle of its tile
+     * across the way it has to go, then spends the rest of its speed going that way.
+     * Lined up like that it only ever enters tiles the search walked through, so no wall
+     * probes are needed
+     */
+    private void chase(int i) {
+        int tileSize = Maze.TILE_SIZE;
+        double half = Zombie.SIZE / 2.0;
+        int col = (int) (x[i] + half) / tileSize;
+        int row = (int) (y[i] + half) / tileSize;
+
+        int dir = flowField.getDirection(row, col);
+        if (dir == FlowField.NONE && flowField.getDistance(row, col) != 0) {
+            wander(i, 1);
+            return;
+        }
+
+        if (cooldown[i] > 0) cooldown[i]--;
+
+        double alignedX = col * tileSize + (tileSize - Zombie.SIZE) / 2.0;
+        double alignedY = row * tileSize + (tileSize - Zombie.SIZE) / 2.0;
+        double oldX = x[i];
+        double oldY = y[i];
+        double budget = Zombie.SPEED;
+
+        if (dir == FlowField.UP || dir == FlowField.DOWN) {
+            budget = align(i, x, alignedX, budget);
+            y[i] += PathingStrategy.rowStep(dir) * budget;
+        } else if (dir == FlowField.LEFT || dir == FlowField.RIGHT) {
+            budget = align(i, y, alignedY, budget);
+            x[i] += PathingStrategy.colStep(dir) * budget;
+        } else {
+            // On the player's tile, close in on its middle
+            budget = align(i, x, alignedX, budget);
+            align(i, y, alignedY, budget);
+        }
+
+        double dx = x[i] - oldX;
+        double dy = y[i] - oldY;
+        if (dx == 0 && dy == 0) return;
+
+        // Face (and keep wandering, if it ever does) along the larger move
+        if (Math.abs(dx) >= Math.abs(dy)) {
+            dirX[i] = Math.signum(dx);
+            dirY[i] = 0;
+            facing[i] = dx > 0 ? 0f : (float) Math.PI;
+        } else {
+            dirX[i] = 0;
+            dirY[i] = Math.signum(dy);
+            facing[i] = dy > 0 ? (float) (Math.PI / 2) : (float) (-Math.PI / 2);
+        }
+    }
+
+    /*
+     * One step along the zombie's corridor segment. Between two tile middles that is just
+     * an add; the graph is only looked at on reaching the next middle, and a way is only
+     * picked at the junction that ends the segment
+     */
+    private void corridor(int i, int steps) {
+        if (segment[i] < 0) {
+            joinCorridor(i, steps);
+            return;
+        }
+        cooldown[i] = Math.max(0, cooldown[i] - steps);
+
+        double distance = Zombie.SPEED * steps;
+        double p = part[i] + distance;
+        if (p < Maze.TILE_SIZE) {
+            part[i] = p;
+            x[i] += dirX[i] * distance;
+            y[i] += dirY[i] * distance;
+            return;
+        }
+
+        // Past the middle of the next tile (or more, with a long step)
+        while (p >= Maze.TILE_SIZE) {
+            p -= Maze.TILE_SIZE;
+            step[i]++;
+            int s = segment[i];
+            if (step[i] == corridors.getSegmentLength(s)) {
+                // At the junction, the way back is the one it just came in by
+                int junction = reversed[i] ? corridors.getFirstJunction(s) : corridors.getLastJunction(s);
+                int back = reversed[i] ? corridors.getFirstExit(s) : corridors.getLastExit(s);
+                chooseExit(i, junction, back);
+            }
+        }
+        part[i] = p;
+        startLeg(i);
+    }
+
+    //puts the zombie part[i] pixels from the middle of its step toward the next one
+    private void startLeg(int i) {
+        int cols = maze.getCols();
+        int from = tileAlong(i, step[i]);
+        int to = tileAlong(i, step[i] + 1);
+        int row = from / cols;
+        int col = from - row * cols;
+        int stepCol = to - from == 1 ? 1 : to - from == -1 ? -1 : 0;
+        int stepRow = to - from == cols ? 1 : to - from == -cols ? -1 : 0;
+
+        double offset = (Maze.TILE_SIZE - Zombie.SIZE) / 2.0;
+        x[i] = col * Maze.TILE_SIZE + offset + stepCol * part[i];
+        y[i] = row * Maze.TILE_SIZE + offset + stepRow * part[i];
+        dirX[i] = stepCol;
+        dirY[i] = stepRow;
+
+        if (stepCol > 0)      facing[i] = 0f;
+        else if (stepCol < 0) facing[i] = (float) Math.PI;
+        else if (stepRow > 0) facing[i] = (float) (Math.PI / 2);
+        else                  facing[i] = (float) (-Math.PI / 2);
+    }
+
+    //tile the given number of steps along the zombie's segment, the way it walks it
+    private int tileAlong(int i, int step) {
+        int s = segment[i];
+        return corridors.getSegmentTile(s, reversed[i] ? corridors.getSegmentLength(s) - step : step);
+    }
+
+    /*
+     * Lines a zombie up with the middle of its tile, then puts it on the graph there:
+     * on a junction it picks a way out, in a corridor it keeps going the way it faces
+     */
+    private void joinCorridor(int i, int steps) {
+        int tileSize = Maze.TILE_SIZE;
+        double half = Zombie.SIZE / 2.0;
+        int col = (int) (x[i] + half) / tileSize;
+        int row = (int) (y[i] + half) / tileSize;
+
+        int junction = corridors.junctionAt(row, col);
+        int s = corridors.segmentAt(row, col);
+        if (junction < 0 && s < 0) {
+            wander(i, steps);  // not on a walkable tile, nothing to follow
+            return;
+        }
+        cooldown[i] = Math.max(0, cooldown[i] - steps);
+
+        double alignedX = col * tileSize + (tileSize - Zombie.SIZE) / 2.0;
+        double alignedY = row * tileSize + (tileSize - Zombie.SIZE) / 2.0;
+        double budget = align(i, x, alignedX, Zombie.SPEED * steps);
+        align(i, y, alignedY, budget);
+        if (x[i] != alignedX || y[i] != alignedY) return;
+
+        if (junction >= 0) {
+            part[i] = 0;
+            chooseExit(i, junction, PathingStrategy.NONE);
+            if (segment[i] >= 0) startLeg(i);
+            return;
+        }
+
+        int cols = maze.getCols();
+        int tile = row * cols + col;
+        int at = corridors.indexOf(s, tile);
+        int ahead = corridors.getSegmentTile(s, at + 1);
+        boolean forward;
+        if (ahead - tile == (int) dirY[i] * cols + (int) dirX[i]) forward = true;
+        else if (tile - ahead == (int) dirY[i] * cols + (int) dirX[i]) forward = false;
+        else forward = nextInt(i, 2) == 0;
+
+        segment[i] = s;
+        reversed[i] = !forward;
+        step[i] = forward ? at : corridors.getSegmentLength(s) - at;
+        part[i] = 0;
+        startLeg(i);
+    }
+
+    /*
+     * Puts the zombie at the start of a random way out of the junction, other than back
+     * unless it is a dead end. A junction with no ways out leaves it off the graph
+     */
+    private void chooseExit(int i, int junction, int back) {
+        int ways = 0;
+        for (int d = 0; d < 4; d++) {
+            if (d != back && corridors.getExitSegment(junction, d) >= 0) ways++;
+        }
+
+        int dir = back;
+        if (ways > 0) {
+            int pick = nextInt(i, ways);
+            for (int d = 0; d < 4; d++) {
+                if (d != back && corridors.getExitSegment(junction, d) >= 0 && pick-- == 0) {
+                    dir = d;
+                    break;
+                }
+            }
+        } else if (back == PathingStrategy.NONE) {
+            segment[i] = -1;
+            return;
+        }
+
+        segment[i] = corridors.getExitSegment(junction, dir);
+        reversed[i] = corridors.isExitReversed(junction, dir);
+        step[i] = 0;
+    }
+
+    //moves coord[i] up to budget toward target, returns the budget left over
+    private static double align(int i, double[] coord, double target, double budget) {
+        double diff = target - coord[i];
+        if (Math.abs(diff) <= budget) {
+            coord[i] = target;
+            return budget - Math.abs(diff);
+        }
+        coord[i] += Math.copySign(budget, diff);
+        return 0;
+    }
+
+    //picks one of four directions from this slot's LCG
+    private void randomizeDirection(int i) {
+        switch (nextInt(i, 4)) {
+            case 0 -> { dirX[i] = 1;  dirY[i] = 0; }
+            case 1 -> { dirX[i] = -1; dirY[i] = 0; }
+            case 2 -> { dirX[i] = 0;  dirY[i] = 1; }
+            default -> { dirX[i] = 0; dirY[i] = -1; }
+        }
+    }
+
+    //uniform in [0, bound) from this slot's LCG, drawn the way Random.nextInt(bound) does
+    private int nextInt(int i, int bound) {
+        int r = next31(i);
+        int m = bound - 1;
+        if ((bound & m) == 0) return (int) ((bound * (long) r) >> 31);
+        for (int u = r; u - (r = u % bound) + m < 0; u = next31(i)) { }
+        return r;
+    }
+
+    //same as Random.next(31)
+    private int next31(int i) {
+        long seed = (rng[i] * MULTIPLIER + ADDEND) & MASK;
+        rng[i] = seed;
+        return (int) (seed >>> 17);
+    }
+
+    //same corner probes as Zombie.collidesWithWall
+    private boolean collidesWithWall(double px, double py) {
+        int tileSize = Maze.TILE_SIZE;
+
+        int leftCol   = (int) px / tileSize;
+        int rightCol  = (int) (px + Zombie.SIZE) / tileSize;
+        int topRow    = (int) py / tileSize;
+        int bottomRow = (int) (py + Zombie.SIZE) / tileSize;
+
+        return !maze.isWalkableUnchecked(topRow, leftCol) ||
+               !maze.isWalkableUnchecked(topRow, rightCol) ||
+               !maze.isWalkableUnchecked(bottomRow, leftCol) ||
+               !maze.isWalkableUnchecked(bottomRow, rightCol);
+    }
+}
@@ -0,0 +1,47 @@
+package model;
+
+import java.util.List;
+
+/*
+ * Read access to a group of zombies by index, used by the Renderer,
+ * CollisionSystem and DangerDetector
+ * Lets them work the same on a ZombieStore or on a plain List<Zombie>
+ */
+public interface ZombieView {
+
+    int size();
+
+    double getX(int index);
+    double getY(int index);
+    double getFacingAngle(int index);
+
+    boolean isInCollisionCooldown(int index);
+    void triggerCollisionCooldown(int index);
+
+    //adapter for code that still keeps one Zombie object per zombie
+    static ZombieView of(List<Zombie> zombies) {
+        return new ZombieView() {
+            @Override
+            public int size() { return zombies.size(); }
+
+            @Override
+            public double getX(int index) { return zombies.get(index).getX(); }
+
+            @Override
+            public double getY(int index) { return zombies.get(index).getY(); }
+
+            @Override
+            public double getFacingAngle(int index) { return zombies.get(index).getFacingAngle(); }
+
+            @Override
+            public boolean isInCollisionCooldown(int index) {
+                return zombies.get(index).isInCollisionCooldown();
+            }
+
+            @Override
+            public void triggerCollisionCooldown(int index) {
+                zombies.get(index).triggerCollisionCooldown();
+            }
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package ui;
+
+import java.awt.Canvas;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Toolkit;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Active rendering surface. Instead of asking Swing to repaint, a dedicated
+ * render thread updates the game and draws each frame straight into a
+ * BufferStrategy at a fixed pace, so a busy event thread cannot delay frames.
+ *
+ * Key events arrive on the event thread and are handed to the game thread.
+ */
+public class GameCanvas extends Canvas implements Runnable, KeyListener {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int TARGET_FPS = 60;
+    public static final long FRAME_NANOS = 1_000_000_000L / TARGET_FPS;
+
+    private final GameComponent game;
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    // Frame statistics, written by the render thread
+    private volatile long frames = 0;
+    private volatile long droppedFrames = 0;
+
+    public GameCanvas(GameComponent game) {
+        this.game = game;
+        game.attachSurface(this);
+
+        setPreferredSize(new Dimension(650, 650));
+        setFocusable(true);
+        setIgnoreRepaint(true);
+        addKeyListener(this);
+    }
+
+    public long getFrames() { return frames; }
+    public long getDroppedFrames() { return droppedFrames; }
+
+    /**
+     * Starts the render thread. Call after the canvas is showing.
+     */
+    public synchronized void start() {
+        if (running) return;
+        createBufferStrategy(2);
+        running = true;
+        thread = new Thread(this, "render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        BufferStrategy strategy = getBufferStrategy();
+        long nextFrame = System.nanoTime();
+
+        while (running) {
+            game.update();
+            drawFrame(strategy);
+            frames++;
+
+            // Pace to the target rate, counting the frames we were too late for
+            nextFrame += FRAME_NANOS;
+            long now = System.nanoTime();
+            if (now > nextFrame) {
+                long late = (now - nextFrame) / FRAME_NANOS;
+                if (late > 0) {
+                    droppedFrames += late;
+                    nextFrame = now;
+                }
+            } else {
+                while (running && (now = System.nanoTime()) < nextFrame) {
+                    LockSupport.parkNanos(nextFrame - now);
+                }
+            }
+        }
+    }
+
+    private void drawFrame(BufferStrategy strategy) {
+        do {
+            do {
+                Graphics2D g2 = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    game.render(g2, getWidth(), getHeight());
+                } finally {
+                    g2.dispose();
+                }
+            } while (strategy.contentsRestored());
+
+            strategy.show();
+        } while (strategy.contentsLost());
+
+        // Flush the window system queue so frames are not batched up (Linux)
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    // Keys are handled on the game thread, in order, between frames
+    @Override
+    public void keyPressed(KeyEvent e) {
+        game.runOnGameThread(() -> game.keyPressed(e));
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+        game.runOnGameThread(() -> game.keyReleased(e));
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) {}
+}
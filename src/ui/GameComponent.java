@@ -3,6 +3,7 @@ package ui;
 import model.*;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 import javax.swing.JOptionPane;
 import java.awt.*;
@@ -10,44 +11,53 @@ import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.util.List;
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * The GameComponent class represents the main gameplay panel.
  *
  * This class acts as the central controller for the game.
  */
-public class GameComponent extends JPanel implements KeyListener {
+public class GameComponent extends JPanel implements KeyListener, SimulationListener {
 
     // Core systems used throughout the game
     final GameStateManager gsm = new GameStateManager();
-    final Camera camera = new Camera();
-    final DangerDetector dangerDetector = new DangerDetector();
+    final Camera camera;
     final Renderer renderer = new Renderer();
-    final CollisionSystem collisionSystem = new CollisionSystem();
 
-    // Game world objects
-    Maze maze;
-    Player player;
-    List<Zombie> zombies;
-    List<Collectible> collectibles;
-    Spawner spawner;
+    // Game rules, stepped at a fixed rate by the driver, or by simThread when it runs on its own
+    final GameSimulation sim;
+    final FixedStepDriver driver;
+    private final SimulationThread simThread;
+
+    // With simThread, drawing only reads snapshots of the world, never the live simulation
+    // Without it the simulation runs on the drawing thread and is drawn directly
+    private final SnapshotBuffer snapshots = new SnapshotBuffer();
+    private WorldSnapshot world;
+    private float renderAlpha = 1f;
+
+    // Level whose countdown is running
+    private int transitionLevel = 0;
+
+    // Frame timing, shown with F3 and written to PROFILE_CSV on exit
+    public static final String PROFILE_PROPERTY = "zombiemaze.profile";
+    public static final String PROFILE_CSV = "profile.csv";
+    final FrameProfiler profiler = new FrameProfiler();
+    private final ProfilerOverlay profilerOverlay = new ProfilerOverlay();
+    private final int[] bandCounts = new int[ZombieScheduler.BANDS];
 
     //Getter added for encapsulation and UML alignment
     public Maze getMaze() {
-        return maze;
+        return sim.getMaze();
     }
 
-    // Movement flags
-    boolean up, down, left, right;
-
-    // Level progression
-    boolean exitUnlocked = false;
-    int currentLevel = 1;
-    final int maxLevel = 2;
-    int carryoverScore = 0;
+    // Movement keys
+    final InputState input = new InputState();
 
     // Win / Game Over prompt timing
     boolean pendingWinPrompt = false;
@@ -55,40 +65,133 @@ public class GameComponent extends JPanel implements KeyListener {
     long winFadeCompleteTime = 0L;
     long gameOverFadeCompleteTime = 0L;
 
-    // Transition state
-    boolean inTransition = false;
-    long transitionStartTime = 0L;
-    final long transitionDuration = 3000;
+    // Score the game ended with, as the simulation reported it
+    int finalScore = 0;
 
-    // Modes and power-ups
+    // Modes
     boolean nightMode = false;
-    boolean freezeActive = false;
-    long freezeStartTime = 0L;
-    boolean doublePointsActive = false;
-    long doublePointsStartTime = 0L;
+
+    // Zombies hunt the player along a flow field instead of wandering
+    public static final String CHASE_PROPERTY = "zombiemaze.chase";
+
+    // Zombies walk corridor to corridor and only turn at junctions
+    public static final String CORRIDOR_PROPERTY = "zombiemaze.corridor";
+
+    // Set to false to move far away zombies every tick too
+    public static final String LOD_PROPERTY = "zombiemaze.lod";
+
+    // Plays the game of that seed instead of a new one each run
+    public static final String SEED_PROPERTY = "zombiemaze.seed";
 
     // Rules screen
     private List<String> rulesLines = new ArrayList<>();
     private GameMode rulesReturnMode = GameMode.TITLE;
 
+    // What the game is drawn on: this panel, or a GameCanvas in active rendering mode
+    private Component surface = this;
+    private final Timer timer;
+
+    // Work handed to the thread that runs update(), e.g. key events and dialog results
+    private final ConcurrentLinkedQueue<Runnable> gameThreadTasks = new ConcurrentLinkedQueue<>();
+
     /**
      * Constructs the GameComponent, initializes listeners, loads rules,
      * loads the first level, and starts the game loop timer.
      */
     public GameComponent() {
+        this(false);
+    }
+
+    /**
+     * @param simulationThread run the simulation on its own thread; events from it are
+     *                         handled on the game thread and drawing uses its snapshots
+     */
+    public GameComponent(boolean simulationThread) {
         setFocusable(true);
         addKeyListener(this);
 
         setPreferredSize(new Dimension(650, 650));
 
         loadRulesFile();
-        loadLevel(currentLevel);
+        Long seed = Long.getLong(SEED_PROPERTY);
+        sim = seed == null ? new GameSimulation()
+                : new GameSimulation(GameSimulation.DEFAULT_LEVEL_FOLDER, new LevelCache(), seed);
+        camera = new Camera(sim.getRandom().stream(GameRandom.Stream.CAMERA, 0));
+        if (Boolean.getBoolean(CHASE_PROPERTY)) sim.setZombieMovement(ZombieMovement.CHASE);
+        else if (Boolean.getBoolean(CORRIDOR_PROPERTY)) sim.setZombieMovement(ZombieMovement.CORRIDOR);
+        sim.getZombieScheduler().setEnabled(!"false".equals(System.getProperty(LOD_PROPERTY)));
+        sim.setProfiler(profiler);
+        profiler.setEnabled(Boolean.getBoolean(PROFILE_PROPERTY));
+        Runtime.getRuntime().addShutdownHook(new Thread(this::writeProfile, "profile-dump"));
+        renderer.setMaze(sim.getMaze());
+        driver = new FixedStepDriver(sim);
+
+        if (simulationThread) {
+            snapshots.publish(sim, System.nanoTime());
+            world = snapshots.latest();
+            sim.setListener(new ForwardingListener(this, this::runOnGameThread));
+            simThread = new SimulationThread(sim, input, snapshots);
+            simThread.start();
+        } else {
+            sim.setListener(this);
+            simThread = null;
+        }
 
         // 60 FPS game loop
-        Timer timer = new Timer(16, e -> gameLoop());
+        timer = new Timer(16, e -> gameLoop());
         timer.start();
     }
 
+    //dumps the frame timings if the profiler was ever switched on
+    private void writeProfile() {
+        if (profiler.getRecorded(FrameProfiler.Phase.FRAME) == 0) return;
+        try (Writer out = new FileWriter(PROFILE_CSV)) {
+            profiler.writeCsv(out);
+        } catch (IOException e) {
+            System.err.println("Could not write " + PROFILE_CSV + ": " + e.getMessage());
+        }
+    }
+
+    //runs the task on whichever thread owns the simulation
+    private void onSimulation(Runnable task) {
+        if (simThread != null) {
+            simThread.post(task);
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Hands drawing and updating over to another surface (GameCanvas),
+     * which then calls update() and render() from its own thread.
+     */
+    void attachSurface(Component surface) {
+        this.surface = surface;
+        timer.stop();
+        if (surface instanceof GameCanvas canvas) profilerOverlay.setCanvas(canvas);
+    }
+
+    //runs the task at the start of the next update, on the game thread
+    void runOnGameThread(Runnable task) {
+        gameThreadTasks.add(task);
+    }
+
+    /**
+     * Shows a modal dialog on the event thread, then runs after on the game thread.
+     * With the Swing timer both are the same thread and this simply blocks like before.
+     */
+    private void showModal(Runnable dialog, Runnable after) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            dialog.run();
+            after.run();
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            dialog.run();
+            runOnGameThread(after);
+        });
+    }
+
     /**
      * Loads the rules text file and passes the lines to the renderer.
      */
@@ -103,101 +206,93 @@ public class GameComponent extends JPanel implements KeyListener {
     }
 
     /**
-     * Loads a level from file, initializes the maze and spawner,
-     * and resets the game state.
-     *
-     * @param level the level number to load
-     */
-    void loadLevel(int level) {
-        String path = "bin/levels/level" + level + ".txt";
-        maze = new Maze(new File(path));
-        spawner = new Spawner(maze);
-
-        // Level-specific zombie counts
-        if (level == 1) {
-            spawner.setZombieCount(8);
-        } else if (level == 2) {
-            spawner.setZombieCount(10);
-        }
-
-        resetGameState();
-    }
-
-    /**
-     * Resets all gameplay state for a newly loaded level.
-     * Spawns player, zombies, collectibles, and resets flags.
+     * Resets the keys and prompts for a newly loaded level.
      */
     private void resetGameState() {
-        player = spawner.spawnPlayer();
-        zombies = spawner.spawnZombies(player);
-        collectibles = spawner.spawnCollectibles(zombies);
-        exitUnlocked = false;
-
-        // Carry score across levels
-        player.addScore(carryoverScore);
-
         // Reset movement
-        up = down = left = right = false;
+        input.clear();
 
         // Reset prompts
         pendingWinPrompt = false;
         pendingGameOverPrompt = false;
         winFadeCompleteTime = 0L;
         gameOverFadeCompleteTime = 0L;
-
-        // Reset power-ups
-        freezeActive = false;
-        freezeStartTime = 0L;
-        doublePointsActive = false;
-        doublePointsStartTime = 0L;
     }
 
     /**
      * Fully restarts the game back to level 1 and clears all state.
      */
     private void fullRestart() {
-        currentLevel = 1;
-        carryoverScore = 0;
         gsm.reset();
-        inTransition = false;
-        transitionStartTime = 0L;
-
-        freezeActive = false;
-        freezeStartTime = 0L;
-        doublePointsActive = false;
-        doublePointsStartTime = 0L;
+        renderer.deactivateFreeze();
+        renderer.deactivateDoublePoints();
 
-        loadLevel(currentLevel);
+        onSimulation(() -> {
+            sim.restart();
+            driver.reset();
+        });
+        resetGameState();
     }
 
     /**
-     * Main game loop called ~60 times per second.
-     * Handles transitions, updates logic, and triggers repainting.
+     * Main game loop called ~60 times per second by the Swing timer.
      */
     private void gameLoop() {
+        update();
+        repaint();
+    }
+
+    /**
+     * Steps the simulation, handles prompts and moves the camera, once per frame.
+     */
+    void update() {
+        Runnable task;
+        while ((task = gameThreadTasks.poll()) != null) task.run();
+
         gsm.updateFades();
         camera.update();
 
-        // Handle level transition countdown
-        if (gsm.getMode() == GameMode.TRANSITION) {
-            long elapsed = System.currentTimeMillis() - transitionStartTime;
-
-            if (elapsed >= transitionDuration) {
-                inTransition = false;
-                gsm.setMode(GameMode.PLAYING);
+        // Update gameplay only in PLAYING mode or during the level countdown
+        boolean stepping = gsm.isPlaying() || gsm.isTransition();
+        long now = System.nanoTime();
+
+        GameMode simMode;
+        int simLevel;
+        if (simThread != null) {
+            simThread.setStepping(stepping);
+            snapshots.setViewSize(surface.getWidth(), surface.getHeight());
+            world = snapshots.latest();
+
+            // Time since the newest tick, as a fraction of a tick
+            float sinceTick = (now - world.getCaptureNanos()) / (float) GameSimulation.NANOS_PER_TICK;
+            renderAlpha = Math.max(0f, Math.min(1f, sinceTick));
+            simMode = world.getMode();
+            simLevel = world.getCurrentLevel();
+        } else {
+            if (stepping) {
+                driver.advance(now, input);
+            } else {
+                driver.reset();
             }
+            simMode = sim.getMode();
+            simLevel = sim.getCurrentLevel();
+        }
 
-            repaint();
-            return;
+        // Countdown finished inside the simulation
+        if (gsm.isTransition() && simMode == GameMode.PLAYING && simLevel == transitionLevel) {
+            gsm.setMode(GameMode.PLAYING);
         }
 
-        // Update gameplay only when in PLAYING mode
-        if (gsm.isPlaying()) {
-            updateGameLogic();
+        // Follow the player after it moved this frame
+        if (simThread != null) {
+            camera.follow(world.getPlayerX(renderAlpha), world.getPlayerY(renderAlpha), world.getMaze(),
+                    surface.getWidth(), surface.getHeight());
+        } else {
+            camera.follow(sim.getPlayer().getX(), sim.getPlayer().getY(), sim.getMaze(),
+                    surface.getWidth(), surface.getHeight());
         }
 
         handleDelayedPrompts();
-        repaint();
     }
 
     /**
@@ -255,62 +350,62 @@ public class GameComponent extends JPanel implements KeyListener {
         }
     }
 
-    /**
-     * Updates all gameplay logic: movement, zombies, collectibles,
-     * power-ups, collisions, and danger detection.
-     */
-    private void updateGameLogic() {
-        player.tickInvincibility();
-        player.tickFlash();
+    // ---------------------------------------------------------
+    // SIMULATION EVENTS
+    // ---------------------------------------------------------
+    @Override
+    public void playerHit() {
+        camera.triggerShake();
+    }
 
-        // Player movement
-        player.move(up, down, left, right);
+    @Override
+    public void freezeStarted() {
+        renderer.activateFreeze();
+    }
 
-        // Zombie movement (disabled during freeze)
-        for (Zombie z : zombies) {
-            if (!freezeActive) {
-                z.update();
-            }
-        }
+    @Override
+    public void freezeEnded() {
+        renderer.deactivateFreeze();
+    }
 
-        // Update collectible animations
-        for (Collectible c : collectibles) {
-            c.updateValue();
-        }
+    @Override
+    public void doublePointsStarted() {
+        renderer.activateDoublePoints();
+    }
 
-        // Freeze power-up expiration
-        if (freezeActive) {
-            if (System.currentTimeMillis() - freezeStartTime >= 3000) {
-                freezeActive = false;
-                renderer.deactivateFreeze();
-            }
-        }
+    @Override
+    public void doublePointsEnded() {
+        renderer.deactivateDoublePoints();
+    }
 
-        // Double points expiration
-        if (doublePointsActive) {
-            if (System.currentTimeMillis() - doublePointsStartTime >= 5000) {
-                doublePointsActive = false;
-                renderer.deactivateDoublePoints();
-            }
-        }
+    @Override
+    public void mazeLoaded(Maze maze) {
+        renderer.setMaze(maze);
+    }
 
-        // Collision handling
-        collisionSystem.update(this, player, zombies, collectibles, maze);
+    @Override
+    public void levelStarted(int level) {
+        transitionLevel = level;
+        resetGameState();
+        gsm.setMode(GameMode.TRANSITION);
+    }
 
-        // Danger detection for HUD
-        dangerDetector.update(player, zombies);
+    @Override
+    public void gameEnded(GameMode mode, int score) {
+        handleGameEnd(mode, score);
     }
 
     /**
      * Handles switching to WIN or GAME OVER mode and prepares prompts.
      *
      * @param mode the end-game mode to switch to
+     * @param score the score the game ended with, checked and saved as is
      */
-    void handleGameEnd(GameMode mode) {
-        inTransition = false;
+    void handleGameEnd(GameMode mode, int score) {
         gsm.setMode(mode);
+        finalScore = score;
 
-        boolean newHigh = ScoreManager.isNewHighScore(player.getScore());
+        boolean newHigh = ScoreManager.isNewHighScore(score);
         gsm.setNewHighScore(newHigh);
 
         if (mode == GameMode.WIN) {
@@ -326,89 +421,106 @@ public class GameComponent extends JPanel implements KeyListener {
      * Prompts the player for their name and saves the score.
      */
     private void showNamePromptAndSaveScore() {
-        String name = JOptionPane.showInputDialog(this, "Enter your name:");
-        if (name != null && !name.isBlank()) {
-            ScoreManager.saveScore(name, player.getScore());
-        }
+        int score = finalScore;
+        showModal(() -> {
+            String name = JOptionPane.showInputDialog(surface, "Enter your name:");
+            if (name != null && !name.isBlank()) {
+                ScoreManager.saveScore(name, score);
+            }
+        }, () -> {});
     }
 
-    /**
-     * Simple AABB collision check between two square objects.
-     */
-    boolean overlap(double x1, double y1, int size1,
-                    double x2, double y2, int size2) {
-        return x1 < x2 + size2 &&
-                x1 + size1 > x2 &&
-                y1 < y2 + size2 &&
-                y1 + size1 > y2;
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        render(g2, getWidth(), getHeight());
+        g2.dispose();
     }
 
     /**
      * Renders the entire game world, HUD, overlays, transitions,
      * and power-up borders.
      */
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        int width = getWidth();
-        int height = getHeight();
+    void render(Graphics2D g2, int width, int height) {
+        // Without simThread the simulation only changes on this thread, so it is drawn as is
+        boolean live = simThread == null;
+        WorldSnapshot world = this.world;
+        float alpha = renderAlpha;
+        Player player = live ? sim.getPlayer() : null;
+        double playerX = live ? player.getX() : world.getPlayerX(alpha);
+        double playerY = live ? player.getY() : world.getPlayerY(alpha);
+
+        profiler.frame();
 
-        Graphics2D g2 = (Graphics2D) g.create();
         g2.setColor(Color.BLACK);
         g2.fillRect(0, 0, width, height);
 
-        // Apply camera offset for world rendering
-        camera.apply(g2);
-        renderer.renderWorld(g2, maze, player, zombies, collectibles, width, height);
-        camera.reset(g2);
+        // World as seen by the camera, only the lit part when night mode hides the rest
+        boolean dark = nightMode && gsm.isPlaying();
+        profiler.begin(FrameProfiler.Phase.RENDER_WORLD);
+        if (live) {
+            ZombieStore zombies = sim.getZombies();
+            renderer.renderWorld(g2, camera, sim.getMaze(), player, zombies, zombies.getGrid(),
+                    sim.getCollectibles(), sim.getCollectibleGrid(), dark);
+        } else {
+            renderer.renderWorld(g2, camera, world, alpha, dark);
+        }
+        profiler.end(FrameProfiler.Phase.RENDER_WORLD);
 
         // Night mode spotlight
-        if (nightMode && gsm.isPlaying()) {
-            renderer.renderNightMode(g2, player, maze, width, height);
+        if (dark) {
+            profiler.begin(FrameProfiler.Phase.NIGHT_MODE);
+            renderer.renderNightMode(g2, camera, playerX, playerY, width, height, true);
+            profiler.end(FrameProfiler.Phase.NIGHT_MODE);
         }
 
+        int score = live ? player.getScore() : world.getScore();
+
         // HUD + flash effect
-        renderer.renderHUD(g2, player, dangerDetector.isInDanger(), width, height);
-        renderer.renderFlash(g2, player, width, height);
+        profiler.begin(FrameProfiler.Phase.HUD);
+        if (live) {
+            renderer.renderHUD(g2, player.getLives(), score, sim.isInDanger(), width, height);
+            renderer.renderFlash(g2, player.isFlashing(), width, height);
+        } else {
+            renderer.renderHUD(g2, world.getLives(), score, world.isInDanger(), width, height);
+            renderer.renderFlash(g2, world.isFlashing(), width, height);
+        }
+        profiler.end(FrameProfiler.Phase.HUD);
 
         renderer.setNightMode(nightMode);
 
         // Overlays (title, win, game over, rules)
-        renderer.renderOverlays(g2, gsm, player, width, height);
+        profiler.begin(FrameProfiler.Phase.OVERLAYS);
+        renderer.renderOverlays(g2, gsm, score, width, height);
 
         // Level transition countdown
-        if (inTransition && gsm.getMode() == GameMode.TRANSITION) {
-
-            long elapsed = System.currentTimeMillis() - transitionStartTime;
-            float progress = Math.min(1f, elapsed / (float) transitionDuration);
-
-            int alpha = (int)((1f - progress) * 180);
+        if (gsm.isTransition()) {
 
-            g2.setColor(new Color(0, 0, 0, alpha));
-            g2.fillRect(0, 0, width, height);
+            int transitionTicks = live ? sim.getTransitionTicks() : world.getTransitionTicks();
+            int level = live ? sim.getCurrentLevel() : world.getCurrentLevel();
+            int ticksDone = GameSimulation.TRANSITION_TICKS - transitionTicks;
+            long elapsed = ticksDone * 1000L / GameSimulation.TICKS_PER_SECOND;
+            float progress = Math.min(1f, ticksDone / (float) GameSimulation.TRANSITION_TICKS);
 
             int secondsLeft = 3 - (int) (elapsed / 1000);
             if (secondsLeft < 1) secondsLeft = 1;
 
-            g2.setColor(Color.WHITE);
-            g2.setFont(new Font("Arial", Font.BOLD, 72));
-            String text = String.valueOf(secondsLeft);
-            FontMetrics fm = g2.getFontMetrics();
-            int tw = fm.stringWidth(text);
-            g2.drawString(text, (width - tw) / 2, height / 2);
-
-            g2.setFont(new Font("Arial", Font.PLAIN, 32));
-            String lvl = "LEVEL " + currentLevel;
-            fm = g2.getFontMetrics();
-            int lw = fm.stringWidth(lvl);
-            g2.drawString(lvl, (width - lw) / 2, height / 2 - 80);
+            renderer.renderTransition(g2, secondsLeft, level, progress, width, height);
         }
 
         // Power-up borders
         renderer.renderFreezeBorder(g2, width, height);
         renderer.renderDoublePointsBorder(g2, width, height);
+        profiler.end(FrameProfiler.Phase.OVERLAYS);
 
-        g2.dispose();
+        if (profiler.isEnabled()) {
+            for (int b = 0; b < ZombieScheduler.BANDS; b++) {
+                bandCounts[b] = live ? sim.getZombieScheduler().getBandCount(b) : world.getBandCount(b);
+            }
+            profilerOverlay.render(g2, profiler, bandCounts, width, height);
+        }
     }
 
     /**
@@ -419,6 +531,12 @@ public class GameComponent extends JPanel implements KeyListener {
     public void keyPressed(KeyEvent e) {
         int code = e.getKeyCode();
 
+        // PROFILER, works on every screen
+        if (code == KeyEvent.VK_F3) {
+            profiler.setEnabled(!profiler.isEnabled());
+            return;
+        }
+
         // TITLE SCREEN CONTROLS
         if (gsm.isTitle()) {
             if (code == KeyEvent.VK_ENTER) {
@@ -461,9 +579,8 @@ public class GameComponent extends JPanel implements KeyListener {
                 returnMode = GameMode.PAUSED;
             }
 
-            LeaderboardPanel.showLeaderboard(this);
-
-            gsm.setMode(returnMode);
+            GameMode after = returnMode;
+            showModal(() -> LeaderboardPanel.showLeaderboard(surface), () -> gsm.setMode(after));
             return;
         }
 
@@ -501,10 +618,10 @@ public class GameComponent extends JPanel implements KeyListener {
         if (!gsm.isPlaying()) return;
 
         // MOVEMENT
-        if (code == KeyEvent.VK_W || code == KeyEvent.VK_UP) up = true;
-        if (code == KeyEvent.VK_S || code == KeyEvent.VK_DOWN) down = true;
-        if (code == KeyEvent.VK_A || code == KeyEvent.VK_LEFT) left = true;
-        if (code == KeyEvent.VK_D || code == KeyEvent.VK_RIGHT) right = true;
+        if (code == KeyEvent.VK_W || code == KeyEvent.VK_UP) input.setUp(true);
+        if (code == KeyEvent.VK_S || code == KeyEvent.VK_DOWN) input.setDown(true);
+        if (code == KeyEvent.VK_A || code == KeyEvent.VK_LEFT) input.setLeft(true);
+        if (code == KeyEvent.VK_D || code == KeyEvent.VK_RIGHT) input.setRight(true);
 
         // Restart key
         if (code == KeyEvent.VK_R) fullRestart();
@@ -517,10 +634,10 @@ public class GameComponent extends JPanel implements KeyListener {
     public void keyReleased(KeyEvent e) {
         int code = e.getKeyCode();
 
-        if (code == KeyEvent.VK_W || code == KeyEvent.VK_UP) up = false;
-        if (code == KeyEvent.VK_S || code == KeyEvent.VK_DOWN) down = false;
-        if (code == KeyEvent.VK_A || code == KeyEvent.VK_LEFT) left = false;
-        if (code == KeyEvent.VK_D || code == KeyEvent.VK_RIGHT) right = false;
+        if (code == KeyEvent.VK_W || code == KeyEvent.VK_UP) input.setUp(false);
+        if (code == KeyEvent.VK_S || code == KeyEvent.VK_DOWN) input.setDown(false);
+        if (code == KeyEvent.VK_A || code == KeyEvent.VK_LEFT) input.setLeft(false);
+        if (code == KeyEvent.VK_D || code == KeyEvent.VK_RIGHT) input.setRight(false);
     }
 
     @Override
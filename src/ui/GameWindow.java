@@ -1,25 +1,55 @@
 package ui;
 
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import javax.swing.JFrame;
 
 /**
  * GameWindow is required by MainApp. It simply creates the JFrame
  * and attaches the GameComponent. All game logic lives elsewhere.
+ *
+ * Run with -Dzombiemaze.activeRendering=true to draw on a GameCanvas from a
+ * dedicated render thread instead of through Swing repaints, and with
+ * -Dzombiemaze.simulationThread=true to step the game on a thread of its own.
  */
 public class GameWindow {
 
+    public static final String ACTIVE_RENDERING_PROPERTY = "zombiemaze.activeRendering";
+    public static final String SIMULATION_THREAD_PROPERTY = "zombiemaze.simulationThread";
+
     public static void show() {
         JFrame frame = new JFrame("Zombie Maze");
 
-        GameComponent game = new GameComponent();
+        GameComponent game = new GameComponent(Boolean.getBoolean(SIMULATION_THREAD_PROPERTY));
+
+        if (Boolean.getBoolean(ACTIVE_RENDERING_PROPERTY)) {
+            GameCanvas canvas = new GameCanvas(game);
+            frame.add(canvas);
+            showFrame(frame);
+
+            canvas.start();
+            canvas.requestFocusInWindow();
+
+            frame.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosing(WindowEvent e) {
+                    canvas.stop();
+                }
+            });
+            return;
+        }
+
         frame.add(game);
+        showFrame(frame);
 
+        game.requestFocusInWindow();
+    }
+
+    private static void showFrame(JFrame frame) {
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setResizable(false);
         frame.setSize(600, 600); // Adjust if needed
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
-
-        game.requestFocusInWindow();
     }
 }
@@ -1,40 +1,57 @@
 package ui;
 
 import java.awt.*;
-import model.Player;
 
 /*
  * Handles the output of the HUD
+ * The bar is kept in a RetainedLayer and only drawn again when lives, score or width change
  */
 public class HUD {
 
-    // Constants for layout 
+    // Constants for layout
     private static final int BAR_HEIGHT = 60;
     private static final int INSTRUCTION_Y = 22;
     private static final int STATS_Y = 50;
     private static final int DANGER_BORDER_THICKNESS = 6;
 
-    public void render(Graphics2D g2, Player player, boolean danger, int width, int height) {
+    // Fonts and colors, made once
+    private static final Font INSTRUCTION_FONT = new Font("Arial", Font.BOLD, 18);
+    private static final Font STATS_FONT = new Font("Arial", Font.BOLD, 20);
+    private static final Color BAR_COLOR = new Color(0, 0, 0, 180);
+    private static final Color DANGER_COLOR = new Color(1f, 0f, 0f, 0.4f);
 
-        // Background bar
-        g2.setColor(new Color(0, 0, 0, 180));
-        g2.fillRect(0, 0, width, BAR_HEIGHT);
+    private static final String INSTRUCTIONS =
+            "R: Restart   P: Pause   L: Leaderboard   N: Night Mode   H: Rules";
 
-        g2.setColor(Color.WHITE);
+    private final RetainedLayer bar = new RetainedLayer();
 
-        // Instructions
-        g2.setFont(new Font("Arial", Font.BOLD, 18));
-        g2.drawString("R: Restart   P: Pause   L: Leaderboard   N: Night Mode   H: Rules",
-                10, INSTRUCTION_Y);
+    public void render(Graphics2D g2, int lives, int score, boolean danger, int width, int height) {
 
-        // Lives + Score
-        g2.setFont(new Font("Arial", Font.BOLD, 20));
-        g2.drawString("Lives: " + player.getLives(), 10, STATS_Y);
-        g2.drawString("Score: " + player.getScore(), 150, STATS_Y);
+        if (!bar.matches(lives, score, width, 0, BAR_HEIGHT)) {
+            Graphics2D g = bar.begin(g2, lives, score, width, 0, BAR_HEIGHT);
+
+            // Background bar
+            g.setColor(BAR_COLOR);
+            g.fillRect(0, 0, width, BAR_HEIGHT);
+
+            g.setColor(Color.WHITE);
+
+            // Instructions
+            g.setFont(INSTRUCTION_FONT);
+            g.drawString(INSTRUCTIONS, 10, INSTRUCTION_Y);
+
+            // Lives + Score
+            g.setFont(STATS_FONT);
+            g.drawString("Lives: " + lives, 10, STATS_Y);
+            g.drawString("Score: " + score, 150, STATS_Y);
+
+            g.dispose();
+        }
+        bar.draw(g2, 1f);
 
         // Danger border
         if (danger) {
-            g2.setColor(new Color(1f, 0f, 0f, 0.4f));
+            g2.setColor(DANGER_COLOR);
             int t = DANGER_BORDER_THICKNESS;
 
             g2.fillRect(0, 0, width, t);
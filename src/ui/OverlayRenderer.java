@@ -2,11 +2,13 @@ package ui;
 
 import java.awt.*;
 import model.GameStateManager;
-import model.Player;
 
 /*
  * Makes the different screens with their information
  * Generates the border during the danger, freeze, and double points
+ *
+ * The text of each screen is kept in a RetainedLayer, drawn again only when what it
+ * shows changes (score, night mode, size...), and faded in by the alpha it is drawn with
  */
 public class OverlayRenderer {
 
@@ -33,6 +35,32 @@ public class OverlayRenderer {
     private static final int RULES_LINE_SPACING = 30;
     private static final int RULES_RETURN_Y_OFFSET = 80;
 
+    private static final int TRANSITION_LEVEL_Y_OFFSET = 80;
+
+    // Room above the first baseline and below the last one of a text layer
+    private static final int LAYER_ASCENT = 80;
+    private static final int LAYER_DESCENT = 20;
+
+    // Fonts and colors, made once
+    private static final Font HEADING_FONT = new Font("Arial", Font.BOLD, 48);
+    private static final Font SCORE_FONT = new Font("Arial", Font.BOLD, 28);
+    private static final Font PROMPT_FONT = new Font("Arial", Font.BOLD, 24);
+    private static final Font RULES_TITLE_FONT = new Font("Arial", Font.BOLD, 36);
+    private static final Font RULES_FONT = new Font("Arial", Font.PLAIN, 18);
+    private static final Font RULES_RETURN_FONT = new Font("Arial", Font.BOLD, 22);
+    private static final Font COUNTDOWN_FONT = new Font("Arial", Font.BOLD, 72);
+    private static final Font LEVEL_FONT = new Font("Arial", Font.PLAIN, 32);
+
+    private static final Color RULES_BACKGROUND = new Color(0f, 0f, 0f, 0.85f);
+
+    // One cached layer per screen
+    private final RetainedLayer title = new RetainedLayer();
+    private final RetainedLayer rules = new RetainedLayer();
+    private final RetainedLayer pause = new RetainedLayer();
+    private final RetainedLayer win = new RetainedLayer();
+    private final RetainedLayer gameOver = new RetainedLayer();
+    private final RetainedLayer transition = new RetainedLayer();
+
     private void drawCenteredString(Graphics2D g2, String text, int y, int width) {
         FontMetrics fm = g2.getFontMetrics();
         int textWidth = fm.stringWidth(text);
@@ -40,98 +68,165 @@ public class OverlayRenderer {
         g2.drawString(text, x, y);
     }
 
-    public void render(Graphics2D g2, GameStateManager gsm, Player player,
-                       java.util.List<String> rulesText,
+    //darkens the whole screen, alpha 0..1
+    private void dim(Graphics2D g2, float alpha, int width, int height) {
+        if (alpha <= 0f) return;
+        Composite old = g2.getComposite();
+        g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, Math.min(1f, alpha)));
+        g2.setColor(Color.BLACK);
+        g2.fillRect(0, 0, width, height);
+        g2.setComposite(old);
+    }
+
+    public void render(Graphics2D g2, GameStateManager gsm, int score,
+                       java.util.List<String> rulesText, int rulesVersion,
                        boolean nightMode,
                        int width, int height) {
 
         // TITLE SCREEN
         if (gsm.isTitle() || gsm.getTitleAlpha() > 0f) {
             float a = gsm.getTitleAlpha();
-            g2.setColor(new Color(0f, 0f, 0f, a * 0.7f));
-            g2.fillRect(0, 0, width, height);
+            dim(g2, a * 0.7f, width, height);
+
+            int top = TITLE_Y_MAIN - LAYER_ASCENT;
+            int bandHeight = TITLE_Y_RULES + LAYER_DESCENT - top;
+            int night = nightMode ? 1 : 0;
 
-            g2.setFont(new Font("Arial", Font.BOLD, 48));
-            g2.setColor(new Color(1f, 1f, 1f, a));
-            drawCenteredString(g2, "Zombie Maze", TITLE_Y_MAIN, width);
+            if (!title.matches(night, 0, width, top, bandHeight)) {
+                Graphics2D g = title.begin(g2, night, 0, width, top, bandHeight);
 
-            g2.setFont(new Font("Arial", Font.BOLD, 24));
-            drawCenteredString(g2, "Press ENTER to Start", TITLE_Y_START, width);
-            drawCenteredString(g2, "Press N to Toggle Night Mode", TITLE_Y_NIGHT, width);
+                g.setFont(HEADING_FONT);
+                g.setColor(Color.WHITE);
+                drawCenteredString(g, "Zombie Maze", TITLE_Y_MAIN, width);
 
-            String nightStatus = nightMode ? "Night Mode: ON" : "Night Mode: OFF";
-            drawCenteredString(g2, nightStatus, TITLE_Y_STATUS, width);
+                g.setFont(PROMPT_FONT);
+                drawCenteredString(g, "Press ENTER to Start", TITLE_Y_START, width);
+                drawCenteredString(g, "Press N to Toggle Night Mode", TITLE_Y_NIGHT, width);
 
-            drawCenteredString(g2, "Press H for Rules", TITLE_Y_RULES, width);
+                String nightStatus = nightMode ? "Night Mode: ON" : "Night Mode: OFF";
+                drawCenteredString(g, nightStatus, TITLE_Y_STATUS, width);
+
+                drawCenteredString(g, "Press H for Rules", TITLE_Y_RULES, width);
+                g.dispose();
+            }
+            title.draw(g2, a);
         }
 
         // RULES SCREEN
         if (gsm.isRules()) {
-            g2.setColor(new Color(0f, 0f, 0f, 0.85f));
-            g2.fillRect(0, 0, width, height);
+            if (!rules.matches(rulesVersion, 0, width, 0, height)) {
+                Graphics2D g = rules.begin(g2, rulesVersion, 0, width, 0, height);
 
-            g2.setFont(new Font("Arial", Font.BOLD, 36));
-            g2.setColor(Color.WHITE);
-            drawCenteredString(g2, "GAME RULES", RULES_TITLE_Y, width);
+                g.setColor(RULES_BACKGROUND);
+                g.fillRect(0, 0, width, height);
 
-            g2.setFont(new Font("Arial", Font.PLAIN, 18));
-            int y = RULES_TEXT_START_Y;
+                g.setFont(RULES_TITLE_FONT);
+                g.setColor(Color.WHITE);
+                drawCenteredString(g, "GAME RULES", RULES_TITLE_Y, width);
 
-            for (String line : rulesText) {
-                g2.drawString(line, 20, y);
-                y += RULES_LINE_SPACING;
-            }
+                g.setFont(RULES_FONT);
+                int y = RULES_TEXT_START_Y;
+
+                for (String line : rulesText) {
+                    g.drawString(line, 20, y);
+                    y += RULES_LINE_SPACING;
+                }
 
-            g2.setFont(new Font("Arial", Font.BOLD, 22));
-            drawCenteredString(g2, "Press H to return", height - RULES_RETURN_Y_OFFSET, width);
+                g.setFont(RULES_RETURN_FONT);
+                drawCenteredString(g, "Press H to return", height - RULES_RETURN_Y_OFFSET, width);
+                g.dispose();
+            }
+            rules.draw(g2, 1f);
         }
 
         // PAUSE
         if (gsm.isPaused()) {
             float a = gsm.getPauseAlpha();
-            g2.setColor(new Color(0f, 0f, 0f, a * 0.6f));
-            g2.fillRect(0, 0, width, height);
+            dim(g2, a * 0.6f, width, height);
+
+            int top = PAUSE_Y_MAIN - LAYER_ASCENT;
+            int bandHeight = PAUSE_Y_SUB + LAYER_DESCENT - top;
 
-            g2.setFont(new Font("Arial", Font.BOLD, 48));
-            g2.setColor(new Color(1f, 1f, 0f, a));
-            drawCenteredString(g2, "PAUSED", PAUSE_Y_MAIN, width);
+            if (!pause.matches(0, 0, width, top, bandHeight)) {
+                Graphics2D g = pause.begin(g2, 0, 0, width, top, bandHeight);
 
-            g2.setFont(new Font("Arial", Font.BOLD, 24));
-            drawCenteredString(g2, "Press P to Resume", PAUSE_Y_SUB, width);
+                g.setFont(HEADING_FONT);
+                g.setColor(Color.YELLOW);
+                drawCenteredString(g, "PAUSED", PAUSE_Y_MAIN, width);
+
+                g.setFont(PROMPT_FONT);
+                drawCenteredString(g, "Press P to Resume", PAUSE_Y_SUB, width);
+                g.dispose();
+            }
+            pause.draw(g2, a);
         }
 
         // WIN
         if (gsm.isWin()) {
             float a = gsm.getWinAlpha();
-            g2.setColor(new Color(0f, 0f, 0f, a * 0.6f));
-            g2.fillRect(0, 0, width, height);
-
-            g2.setFont(new Font("Arial", Font.BOLD, 48));
-            g2.setColor(new Color(0f, 1f, 0f, a));
-            drawCenteredString(g2, "YOU WIN!", WIN_Y_MAIN, width);
-
-            g2.setFont(new Font("Arial", Font.BOLD, 28));
-            drawCenteredString(g2, "Final Score: " + player.getScore(), WIN_Y_SCORE, width);
-
-            g2.setFont(new Font("Arial", Font.BOLD, 24));
-            drawCenteredString(g2, "Press L to view Leaderboard", WIN_Y_PROMPT, width);
+            dim(g2, a * 0.6f, width, height);
+            renderResult(g2, win, "YOU WIN!", Color.GREEN, score,
+                    WIN_Y_MAIN, WIN_Y_SCORE, WIN_Y_PROMPT, a, width);
         }
 
         // GAME OVER
         if (gsm.isGameOver()) {
             float a = gsm.getGameOverAlpha();
-            g2.setColor(new Color(0f, 0f, 0f, a * 0.6f));
-            g2.fillRect(0, 0, width, height);
+            dim(g2, a * 0.6f, width, height);
+            renderResult(g2, gameOver, "GAME OVER", Color.RED, score,
+                    GAMEOVER_Y_MAIN, GAMEOVER_Y_SCORE, GAMEOVER_Y_PROMPT, a, width);
+        }
+    }
+
+    //heading, final score and leaderboard prompt of the win and game over screens
+    private void renderResult(Graphics2D g2, RetainedLayer layer, String heading, Color color,
+                              int score, int mainY, int scoreY, int promptY,
+                              float alpha, int width) {
+        int top = mainY - LAYER_ASCENT;
+        int bandHeight = promptY + LAYER_DESCENT - top;
+
+        if (!layer.matches(score, 0, width, top, bandHeight)) {
+            Graphics2D g = layer.begin(g2, score, 0, width, top, bandHeight);
+
+            g.setFont(HEADING_FONT);
+            g.setColor(color);
+            drawCenteredString(g, heading, mainY, width);
+
+            g.setFont(SCORE_FONT);
+            drawCenteredString(g, "Final Score: " + score, scoreY, width);
+
+            g.setFont(PROMPT_FONT);
+            drawCenteredString(g, "Press L to view Leaderboard", promptY, width);
+            g.dispose();
+        }
+        layer.draw(g2, alpha);
+    }
+
+    /**
+     * Draws the countdown between levels.
+     *
+     * @param progress 0 when the countdown starts, 1 when it ends
+     */
+    public void renderTransition(Graphics2D g2, int secondsLeft, int level, float progress,
+                                 int width, int height) {
+
+        dim(g2, (1f - progress) * 180 / 255f, width, height);
+
+        int levelY = height / 2 - TRANSITION_LEVEL_Y_OFFSET;
+        int top = levelY - LAYER_ASCENT;
+        int bandHeight = height / 2 + LAYER_DESCENT - top;
 
-            g2.setFont(new Font("Arial", Font.BOLD, 48));
-            g2.setColor(new Color(1f, 0f, 0f, a));
-            drawCenteredString(g2, "GAME OVER", GAMEOVER_Y_MAIN, width);
+        if (!transition.matches(secondsLeft, level, width, top, bandHeight)) {
+            Graphics2D g = transition.begin(g2, secondsLeft, level, width, top, bandHeight);
 
-            g2.setFont(new Font("Arial", Font.BOLD, 28));
-            drawCenteredString(g2, "Final Score: " + player.getScore(), GAMEOVER_Y_SCORE, width);
+            g.setColor(Color.WHITE);
+            g.setFont(COUNTDOWN_FONT);
+            drawCenteredString(g, String.valueOf(secondsLeft), height / 2, width);
 
-            g2.setFont(new Font("Arial", Font.BOLD, 24));
-            drawCenteredString(g2, "Press L to view Leaderboard", GAMEOVER_Y_PROMPT, width);
+            g.setFont(LEVEL_FONT);
+            drawCenteredString(g, "LEVEL " + level, levelY, width);
+            g.dispose();
         }
+        transition.draw(g2, 1f);
     }
 }
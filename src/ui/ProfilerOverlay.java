@@ -0,0 +1,130 @@
+package ui;
+
+import java.awt.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Locale;
+import model.FrameProfiler;
+import model.ZombieScheduler;
+
+/*
+ * Debug overlay (F3) with the frame rate, per-phase p50/p99/max times,
+ * GC count and allocation rate, and zombies per update band
+ * With active rendering on, the header also has the render thread's frames and dropped frames
+ * The numbers are worked out a few times a second, not every frame
+ */
+public class ProfilerOverlay {
+
+    private static final long REFRESH_NANOS = 250_000_000L;
+
+    private static final Font FONT = new Font("Monospaced", Font.PLAIN, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 190);
+    private static final int LINE_HEIGHT = 14;
+    private static final int PADDING = 6;
+
+    private static final FrameProfiler.Phase[] PHASES = FrameProfiler.Phase.values();
+
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    // Header + one line per phase + gc line + band line
+    private final String[] lines = new String[PHASES.length + 4];
+
+    // Set in active rendering mode
+    private GameCanvas canvas;
+
+    private long lastRefresh = 0;
+    private long lastAllocated = -1;
+    private long lastAllocatedTime = 0;
+
+    //shows the canvas's frame counts in the header, null hides them
+    public void setCanvas(GameCanvas canvas) {
+        this.canvas = canvas;
+    }
+
+    public void render(Graphics2D g2, FrameProfiler profiler, int[] bandCounts, int width, int height) {
+        long now = System.nanoTime();
+        if (lines[0] == null || now - lastRefresh >= REFRESH_NANOS) {
+            refresh(profiler, bandCounts, now);
+            lastRefresh = now;
+        }
+
+        g2.setFont(FONT);
+        FontMetrics fm = g2.getFontMetrics();
+
+        int boxWidth = 0;
+        for (String line : lines) boxWidth = Math.max(boxWidth, fm.stringWidth(line));
+        boxWidth += PADDING * 2;
+        int boxHeight = lines.length * LINE_HEIGHT + PADDING * 2;
+
+        int x = width - boxWidth - PADDING;
+        int y = 60 + PADDING;  // below the HUD bar
+
+        g2.setColor(BACKGROUND);
+        g2.fillRect(x, y, boxWidth, boxHeight);
+
+        g2.setColor(Color.GREEN);
+        int baseline = y + PADDING + fm.getAscent();
+        for (String line : lines) {
+            g2.drawString(line, x + PADDING, baseline);
+            baseline += LINE_HEIGHT;
+        }
+    }
+
+    private void refresh(FrameProfiler profiler, int[] bandCounts, long now) {
+        lines[0] = String.format(Locale.ROOT, "FPS %.1f", profiler.getFps());
+        if (canvas != null) {
+            lines[0] += String.format(Locale.ROOT, "   frames %d  dropped %d",
+                    canvas.getFrames(), canvas.getDroppedFrames());
+        }
+        lines[1] = String.format(Locale.ROOT, "%-18s %7s %7s %7s", "phase (us)", "p50", "p99", "max");
+
+        for (int i = 0; i < PHASES.length; i++) {
+            FrameProfiler.Phase phase = PHASES[i];
+            lines[i + 2] = String.format(Locale.ROOT, "%-18s %7.1f %7.1f %7.1f", phase.getLabel(),
+                    profiler.percentile(phase, 50) / 1e3,
+                    profiler.percentile(phase, 99) / 1e3,
+                    profiler.max(phase) / 1e3);
+        }
+
+        lines[lines.length - 2] = String.format(Locale.ROOT, "GC %d   alloc %s",
+                gcCount(), allocationRate(now));
+
+        StringBuilder bands = new StringBuilder("zombies");
+        for (int b = 0; b < ZombieScheduler.BANDS; b++) {
+            bands.append(String.format(Locale.ROOT, "  1/%d:%d", ZombieScheduler.getPeriod(b), bandCounts[b]));
+        }
+        lines[lines.length - 1] = bands.toString();
+    }
+
+    private long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : collectors) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    //bytes allocated per second by all threads, when the JVM can tell us
+    private String allocationRate(long now) {
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return "n/a";
+        com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) threads;
+        if (!sun.isThreadAllocatedMemorySupported() || !sun.isThreadAllocatedMemoryEnabled()) return "n/a";
+
+        long total = 0;
+        for (long bytes : sun.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+
+        String rate = "...";
+        if (lastAllocated >= 0 && total >= lastAllocated && now > lastAllocatedTime) {
+            double perSecond = (total - lastAllocated) * 1e9 / (now - lastAllocatedTime);
+            rate = String.format(Locale.ROOT, "%.1f MB/s", perSecond / (1024 * 1024));
+        }
+        lastAllocated = total;
+        lastAllocatedTime = now;
+        return rate;
+    }
+}
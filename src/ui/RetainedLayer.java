@@ -0,0 +1,92 @@
+package ui;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/*
+ * A piece of HUD or overlay drawn once into an image and reused every frame
+ * The image is only drawn again when one of its keys (score, lives, screen size...) changes
+ *
+ * Usage:
+ *   if (!layer.matches(keyA, keyB, width, top, height)) {
+ *       Graphics2D g = layer.begin(g2, keyA, keyB, width, top, height);
+ *       ...draw in screen coordinates...
+ *       g.dispose();
+ *   }
+ *   layer.draw(g2, alpha);
+ */
+public class RetainedLayer {
+
+    private BufferedImage image;
+
+    // What the image was drawn for
+    private int keyA;
+    private int keyB;
+    private int width = -1;
+    private int height = -1;
+    private int top = 0;
+
+    // Times the layer was drawn again, for checking the cache works
+    private int rebuilds = 0;
+
+    public int getRebuilds() { return rebuilds; }
+
+    public boolean matches(int keyA, int keyB, int width, int top, int height) {
+        return image != null && keyA == this.keyA && keyB == this.keyB
+                && width == this.width && top == this.top && height == this.height;
+    }
+
+    /**
+     * Clears the layer for new contents covering the screen band top..top+height.
+     * The returned graphics is translated so callers draw in screen coordinates.
+     */
+    public Graphics2D begin(Graphics2D target, int keyA, int keyB, int width, int top, int height) {
+        int w = Math.max(1, width);
+        int h = Math.max(1, height);
+
+        if (image == null || image.getWidth() != w || image.getHeight() != h) {
+            GraphicsConfiguration gc = target.getDeviceConfiguration();
+            image = gc != null
+                    ? gc.createCompatibleImage(w, h, Transparency.TRANSLUCENT)
+                    : new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+
+        this.keyA = keyA;
+        this.keyB = keyB;
+        this.width = width;
+        this.height = height;
+        this.top = top;
+        rebuilds++;
+
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, w, h);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.translate(0, -top);
+        return g;
+    }
+
+    //forces the next matches() to fail
+    public void invalidate() {
+        width = -1;
+    }
+
+    //draws the layer at its band, faded by alpha (0..1)
+    public void draw(Graphics2D g2, float alpha) {
+        if (image == null || alpha <= 0f) return;
+
+        if (alpha >= 1f) {
+            g2.drawImage(image, 0, top, null);
+            return;
+        }
+
+        Composite old = g2.getComposite();
+        g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+        g2.drawImage(image, 0, top, null);
+        g2.setComposite(old);
+    }
+}